@@ -11,7 +11,6 @@ import android.widget.CompoundButton;
 import android.widget.SeekBar;
 import android.widget.TextView;
 
-import com.leochuan.CenterScrollListener;
 import com.leochuan.CircleLayoutManager;
 
 import java.util.Locale;
@@ -38,7 +37,6 @@ class CirclePopUpWindow extends SettingPopUpWindow
     private SwitchCompat infinite;
     private SwitchCompat scrollBack;
     private SwitchCompat reverse;
-    private CenterScrollListener scrollListener;
 
     CirclePopUpWindow(Context context, CircleLayoutManager circleLayoutManager, RecyclerView recyclerView) {
         super(context);
@@ -50,8 +48,6 @@ class CirclePopUpWindow extends SettingPopUpWindow
         setHeight(WindowManager.LayoutParams.WRAP_CONTENT);
         setContentView(view);
 
-        scrollListener = new CenterScrollListener();
-
         SeekBar radius = (SeekBar) view.findViewById(R.id.sb_radius);
         SeekBar interval = (SeekBar) view.findViewById(R.id.sb_interval);
         SeekBar speed = (SeekBar) view.findViewById(R.id.sb_speed);
@@ -128,11 +124,7 @@ class CirclePopUpWindow extends SettingPopUpWindow
                 circleLayoutManager.setInfinite(isChecked);
                 break;
             case R.id.s_scroll_back:
-                if (isChecked) {
-                    recyclerView.addOnScrollListener(scrollListener);
-                } else {
-                    recyclerView.removeOnScrollListener(scrollListener);
-                }
+                circleLayoutManager.setEnableSnap(isChecked);
                 break;
             case R.id.s_center_in_front:
                 circleLayoutManager.setEnableBringCenterToFront(isChecked);
@@ -0,0 +1,133 @@
+package com.leochuan.benchmark;
+
+import com.leochuan.geometry.CircleGeometry;
+import com.leochuan.geometry.CircleScaleGeometry;
+import com.leochuan.geometry.ElevateScaleGeometry;
+import com.leochuan.geometry.GalleryGeometry;
+import com.leochuan.geometry.PagerGeometry;
+import com.leochuan.geometry.RotateGeometry;
+import com.leochuan.geometry.ScaleGeometry;
+
+/**
+ * The geometry config of every shipped layout manager with its default values, the way the
+ * layout manager pushes it before a layout pass.
+ * <p>
+ * Circle managers are always horizontal in the library, the orientation param is kept
+ * for them only to keep the benchmark matrix uniform.
+ */
+enum Manager {
+    CIRCLE {
+        @Override
+        PagerGeometry createGeometry() {
+            return new CircleGeometry();
+        }
+
+        @Override
+        float interval(int measurement) {
+            return 30;
+        }
+
+        @Override
+        void setUp(PagerGeometry geometry, int measurement, int measurementInOther, int spaceMain,
+                   int totalSpace) {
+            ((CircleGeometry) geometry).setRadius(measurementInOther);
+            geometry.setRemoveOffset(-90, 90);
+        }
+    },
+    CIRCLE_SCALE {
+        @Override
+        PagerGeometry createGeometry() {
+            return new CircleScaleGeometry(1.2f);
+        }
+
+        @Override
+        float interval(int measurement) {
+            return 30;
+        }
+
+        @Override
+        void setUp(PagerGeometry geometry, int measurement, int measurementInOther, int spaceMain,
+                   int totalSpace) {
+            ((CircleGeometry) geometry).setRadius(measurementInOther);
+            geometry.setRemoveOffset(-90, 90);
+        }
+    },
+    ELEVATE_SCALE {
+        @Override
+        PagerGeometry createGeometry() {
+            return new ElevateScaleGeometry(0.5f);
+        }
+    },
+    GALLERY {
+        @Override
+        PagerGeometry createGeometry() {
+            return new GalleryGeometry(30f, 0.5f);
+        }
+    },
+    ROTATE {
+        @Override
+        PagerGeometry createGeometry() {
+            return new RotateGeometry(360f);
+        }
+    },
+    SCALE {
+        @Override
+        PagerGeometry createGeometry() {
+            return new ScaleGeometry(1.2f);
+        }
+
+        @Override
+        float interval(int measurement) {
+            return (int) (measurement * ((1.2f - 1f) / 2f + 1) + ITEM_SPACE);
+        }
+    };
+
+    static final int PARENT_WIDTH = 1080;
+    static final int PARENT_HEIGHT = 1920;
+    static final int ITEM_WIDTH = 600;
+    static final int ITEM_HEIGHT = 800;
+    static final int ITEM_SPACE = 20;
+
+    abstract PagerGeometry createGeometry();
+
+    /**
+     * Mirrors setInterval() of the layout manager
+     */
+    float interval(int measurement) {
+        return measurement + ITEM_SPACE;
+    }
+
+    /**
+     * Mirrors setUp() and the remove offset overrides of the layout manager
+     */
+    void setUp(PagerGeometry geometry, int measurement, int measurementInOther, int spaceMain,
+               int totalSpace) {
+        geometry.setRemoveOffset(-measurement - spaceMain, totalSpace - spaceMain);
+    }
+
+    /**
+     * @return a geometry set up for a parent of {@link #PARENT_WIDTH} x {@link #PARENT_HEIGHT}
+     * and items of {@link #ITEM_WIDTH} x {@link #ITEM_HEIGHT}
+     */
+    PagerGeometry create(int itemCount, int orientation, boolean infinite, boolean reverseLayout) {
+        final boolean vertical = orientation == PagerGeometry.VERTICAL;
+        final int totalSpace = vertical ? PARENT_HEIGHT : PARENT_WIDTH;
+        final int totalSpaceInOther = vertical ? PARENT_WIDTH : PARENT_HEIGHT;
+        final int measurement = vertical ? ITEM_HEIGHT : ITEM_WIDTH;
+        final int measurementInOther = vertical ? ITEM_WIDTH : ITEM_HEIGHT;
+        final int spaceMain = (totalSpace - measurement) / 2;
+        final int spaceInOther = (totalSpaceInOther - measurementInOther) / 2;
+
+        final PagerGeometry geometry = createGeometry();
+        geometry.setOrientation(orientation);
+        geometry.setReverseLayout(reverseLayout);
+        geometry.setInfinite(infinite);
+        geometry.setItemCount(itemCount);
+        geometry.setInterval(interval(measurement));
+        geometry.setSpace(spaceMain, spaceInOther);
+        geometry.setDecoratedMeasurement(measurement, measurementInOther);
+        geometry.setTotalSpace(totalSpace);
+        setUp(geometry, measurement, measurementInOther, spaceMain, totalSpace);
+        return geometry;
+    }
+}
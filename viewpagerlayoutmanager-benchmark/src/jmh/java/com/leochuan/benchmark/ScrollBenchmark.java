@@ -0,0 +1,105 @@
+package com.leochuan.benchmark;
+
+import com.leochuan.geometry.DrawingOrder;
+import com.leochuan.geometry.ItemTransform;
+import com.leochuan.geometry.PagerGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The geometry work of one scroll frame: the offset moves by one frame, the visible window
+ * is computed, every item in it gets its transform and, when the center item is brought to
+ * front, the drawing order is sorted. The offset bounces between the bounds of a finite pager.
+ * <p>
+ * Only the shared geometry code runs here, view work and the bookkeeping of
+ * ViewPagerLayoutManager are not part of the numbers.
+ * <p>
+ * Run with the gc profiler (enabled in build.gradle), {@code gc.alloc.rate.norm} is the
+ * bytes allocated per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScrollBenchmark {
+    /**
+     * Pixels scrolled per frame, a medium speed drag on a xxhdpi device
+     */
+    private static final float FRAME_DELTA = 24.37f;
+
+    @Param({"CIRCLE", "CIRCLE_SCALE", "ELEVATE_SCALE", "GALLERY", "ROTATE", "SCALE"})
+    Manager manager;
+
+    @Param({"10", "1000", "100000"})
+    int itemCount;
+
+    @Param({"0", "1"})
+    int orientation;
+
+    @Param({"false", "true"})
+    boolean infinite;
+
+    @Param({"false", "true"})
+    boolean reverseLayout;
+
+    @Param({"false", "true"})
+    boolean bringCenterToFront;
+
+    private PagerGeometry geometry;
+
+    private final ItemTransform transform = new ItemTransform();
+
+    private final DrawingOrder drawingOrder = new DrawingOrder();
+
+    private double offset;
+
+    private double delta;
+
+    @Setup
+    public void setUp() {
+        geometry = manager.create(itemCount, orientation, infinite, reverseLayout);
+        offset = geometry.getProperty(itemCount / 2);
+        delta = FRAME_DELTA;
+    }
+
+    @Benchmark
+    public int frame() {
+        double target = offset + delta;
+        if (!infinite && (target < geometry.getMinOffset() || target > geometry.getMaxOffset())) {
+            delta = -delta;
+            target = offset + delta;
+        }
+        offset = target;
+
+        final int start = geometry.getLayoutStart(offset);
+        final int end = geometry.getLayoutEnd(offset);
+        if (bringCenterToFront) drawingOrder.reset(end - start);
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            final float targetOffset = geometry.getTargetOffset(i, offset);
+            if (geometry.removeCondition(targetOffset)) continue;
+            geometry.getItemTransformAt(i, offset, transform);
+            sum += (int) transform.left + (int) transform.top;
+            if (bringCenterToFront) drawingOrder.setWeight(i - start, transform.z);
+        }
+        if (bringCenterToFront) {
+            drawingOrder.sort();
+            sum += drawingOrder.getChildIndex(end - start, 0);
+        }
+        return sum;
+    }
+}
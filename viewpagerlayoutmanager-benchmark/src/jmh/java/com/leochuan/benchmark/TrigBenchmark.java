@@ -0,0 +1,70 @@
+package com.leochuan.benchmark;
+
+import com.leochuan.geometry.TrigTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per frame trig cost of the circle managers: every attached child within +-90 degrees
+ * needs both directions computed once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+    private static final int RADIUS = 800;
+
+    @Param({"5", "10", "30"})
+    int angleInterval;
+
+    private TrigTable table;
+
+    private float[] targetOffsets;
+
+    @Setup
+    public void setUp() {
+        table = new TrigTable();
+        table.update(RADIUS, angleInterval);
+        final int childCount = 180 / angleInterval + 1;
+        targetOffsets = new float[childCount];
+        for (int i = 0; i < childCount; i++) {
+            // a frame in the middle of a scroll, offsets are not multiples of the interval
+            targetOffsets[i] = -90 + i * angleInterval + 0.37f;
+        }
+    }
+
+    @Benchmark
+    public int math() {
+        int sum = 0;
+        for (float targetOffset : targetOffsets) {
+            sum += (int) (RADIUS * Math.cos(Math.toRadians(90 - targetOffset)));
+            sum += (int) (RADIUS - RADIUS * Math.sin(Math.toRadians(90 - targetOffset)));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int table() {
+        int sum = 0;
+        for (float targetOffset : targetOffsets) {
+            sum += (int) table.mainDirection(targetOffset);
+            sum += (int) table.otherDirection(targetOffset);
+        }
+        return sum;
+    }
+}
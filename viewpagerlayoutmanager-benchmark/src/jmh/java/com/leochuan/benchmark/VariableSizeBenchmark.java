@@ -0,0 +1,75 @@
+package com.leochuan.benchmark;
+
+import com.leochuan.geometry.PagerGeometry;
+import com.leochuan.geometry.ScaleGeometry;
+import com.leochuan.geometry.SizeIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per frame offset queries with items of different sizes: the current position and the
+ * bounds of the visible window. They should grow with log(itemCount).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableSizeBenchmark {
+    private static final int INTERVAL = 620;
+
+    @Param({"10", "1000", "100000"})
+    int itemCount;
+
+    @Param({"false", "true"})
+    boolean variableSize;
+
+    private PagerGeometry geometry;
+
+    private double offset;
+
+    private double maxOffset;
+
+    @Setup
+    public void setUp() {
+        geometry = new ScaleGeometry(1.2f);
+        geometry.setItemCount(itemCount);
+        geometry.setInterval(INTERVAL);
+        geometry.setDecoratedMeasurement(Manager.ITEM_WIDTH, Manager.ITEM_HEIGHT);
+        geometry.setTotalSpace(Manager.PARENT_WIDTH);
+        geometry.setRemoveOffset(-Manager.PARENT_WIDTH, Manager.PARENT_WIDTH);
+        if (variableSize) {
+            final SizeIndex sizeIndex = new SizeIndex();
+            sizeIndex.reset(itemCount, Manager.ITEM_WIDTH, Manager.ITEM_HEIGHT);
+            final Random random = new Random(0);
+            for (int i = 0; i < itemCount; i++) {
+                sizeIndex.set(i, Manager.ITEM_WIDTH / 2 + random.nextInt(Manager.ITEM_WIDTH),
+                        Manager.ITEM_HEIGHT);
+            }
+            geometry.setSizeIndex(sizeIndex, 1f);
+        }
+        maxOffset = geometry.getMaxOffset();
+    }
+
+    @Benchmark
+    public int frame() {
+        offset += 24.37f;
+        if (offset > maxOffset) offset = 0;
+        return geometry.getCurrentPositionInternal(offset)
+                + geometry.getLayoutStart(offset) + geometry.getLayoutEnd(offset);
+    }
+}
@@ -0,0 +1,134 @@
+package com.leochuan;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * The clock every autoplaying {@link ViewPagerLayoutManager} of the process shares, see
+ * {@link ViewPagerLayoutManager#setEnableAutoPlay(boolean)}.
+ * <p>
+ * A single frame callback is posted for the earliest deadline among the carousels, so the
+ * thread only wakes up when a carousel is due, however many carousels there are. Carousels
+ * which are detached are not registered at all, carousels which are dragged, hidden or
+ * scrolled out of sight have no deadline. The callback is posted to the {@link Choreographer} from Jelly Bean on, so a
+ * page turn starts with a frame, and to a {@link Handler} before. Main thread only.
+ */
+final class AutoPlayClock {
+    private static AutoPlayClock sInstance;
+
+    private final ArrayList<ViewPagerLayoutManager> mCarousels = new ArrayList<>();
+
+    private final Ticker mTicker;
+
+    /**
+     * Uptime in milliseconds the posted callback fires at, 0 if none is posted
+     */
+    private long mScheduledTime;
+
+    static AutoPlayClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new AutoPlayClock();
+        }
+        return sInstance;
+    }
+
+    private AutoPlayClock() {
+        mTicker = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ?
+                new FrameTicker() : new HandlerTicker();
+    }
+
+    void register(ViewPagerLayoutManager carousel) {
+        if (!mCarousels.contains(carousel)) {
+            mCarousels.add(carousel);
+        }
+        schedule();
+    }
+
+    void unregister(ViewPagerLayoutManager carousel) {
+        mCarousels.remove(carousel);
+        schedule();
+    }
+
+    /**
+     * Posts the callback for the earliest deadline, call it whenever a deadline changes.
+     */
+    void schedule() {
+        long deadline = Long.MAX_VALUE;
+        for (int i = 0; i < mCarousels.size(); i++) {
+            deadline = Math.min(deadline, mCarousels.get(i).getAutoPlayDeadline());
+        }
+        if (deadline == mScheduledTime) {
+            return;
+        }
+        if (mScheduledTime != 0) {
+            mTicker.cancel();
+            mScheduledTime = 0;
+        }
+        if (deadline == Long.MAX_VALUE) {
+            return;
+        }
+        mScheduledTime = deadline;
+        mTicker.post(Math.max(0, deadline - SystemClock.uptimeMillis()));
+    }
+
+    private void tick() {
+        mScheduledTime = 0;
+        final long now = SystemClock.uptimeMillis();
+        // a carousel may unregister itself while ticking
+        for (int i = mCarousels.size() - 1; i >= 0; i--) {
+            if (i < mCarousels.size()) {
+                mCarousels.get(i).onAutoPlayTick(now);
+            }
+        }
+        schedule();
+    }
+
+    private interface Ticker {
+        void post(long delayMillis);
+
+        void cancel();
+    }
+
+    private class FrameTicker implements Ticker, Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        @Override
+        public void post(long delayMillis) {
+            mChoreographer.postFrameCallbackDelayed(this, delayMillis);
+        }
+
+        @Override
+        public void cancel() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            tick();
+        }
+    }
+
+    private class HandlerTicker implements Ticker, Runnable {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void post(long delayMillis) {
+            mHandler.postDelayed(this, delayMillis);
+        }
+
+        @Override
+        public void cancel() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            tick();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.leochuan;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+
+/**
+ * A {@link RecyclerView.RecycledViewPool} shared by the {@link ViewPagerLayoutManager}s of
+ * carousels nested in a scrolling feed, see
+ * {@link ViewPagerLayoutManager#setCarouselPool(CarouselPool)}.
+ * <p>
+ * Pages of a carousel which scrolls out of the feed go back to the pool and are picked up
+ * by the next carousel which scrolls in. The max recycled views of each view type is the
+ * largest window of pages among the carousels, multiplied by the peak number of carousels
+ * attached at the same time, so the pool holds enough pages for every carousel on screen
+ * to be replaced at once.
+ * <p>
+ * Use one instance per feed, on the main thread only.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class CarouselPool {
+    private final RecyclerView.RecycledViewPool mPool;
+
+    private int mAttachedCount;
+
+    private int mPeakAttachedCount;
+
+    /**
+     * Largest pool size requested by a single carousel for each view type
+     */
+    private final SparseIntArray mPoolSizes = new SparseIntArray();
+
+    public CarouselPool() {
+        this(new RecyclerView.RecycledViewPool());
+    }
+
+    public CarouselPool(RecyclerView.RecycledViewPool pool) {
+        mPool = pool;
+    }
+
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        return mPool;
+    }
+
+    /**
+     * @return the number of carousels currently attached to a window
+     */
+    public int getAttachedCount() {
+        return mAttachedCount;
+    }
+
+    /**
+     * @return the highest number of carousels attached at the same time so far
+     */
+    public int getPeakAttachedCount() {
+        return mPeakAttachedCount;
+    }
+
+    /**
+     * @return the max recycled views currently applied to given view type, 0 if no carousel
+     * has requested a size for it
+     */
+    public int getMaxRecycledViews(int viewType) {
+        final long size = (long) mPoolSizes.get(viewType) * Math.max(1, mPeakAttachedCount);
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    void onCarouselAttached() {
+        mAttachedCount++;
+        if (mAttachedCount <= mPeakAttachedCount) {
+            return;
+        }
+        mPeakAttachedCount = mAttachedCount;
+        for (int i = 0; i < mPoolSizes.size(); i++) {
+            applyMaxRecycledViews(mPoolSizes.keyAt(i));
+        }
+    }
+
+    void onCarouselDetached() {
+        if (mAttachedCount > 0) mAttachedCount--;
+    }
+
+    /**
+     * @param poolSize the pool size a single carousel needs for given view type
+     */
+    void requestPoolSize(int viewType, int poolSize) {
+        if (poolSize <= mPoolSizes.get(viewType)) {
+            return;
+        }
+        mPoolSizes.put(viewType, poolSize);
+        applyMaxRecycledViews(viewType);
+    }
+
+    private void applyMaxRecycledViews(int viewType) {
+        mPool.setMaxRecycledViews(viewType, getMaxRecycledViews(viewType));
+    }
+}
@@ -5,7 +5,11 @@ import android.support.v7.widget.RecyclerView;
 
 /**
  * Created by Dajavu on 16/8/18.
+ *
+ * @deprecated waits for the scroll to stop before it settles, which runs a second animation
+ * after every fling. Use {@link ViewPagerLayoutManager#setEnableSnap(boolean)} instead.
  */
+@Deprecated
 public class CenterScrollListener extends RecyclerView.OnScrollListener {
     private boolean mAutoSet = false;
 
@@ -17,6 +21,10 @@ public class CenterScrollListener extends RecyclerView.OnScrollListener {
             mAutoSet = true;
             return;
         }
+        if (((ViewPagerLayoutManager) layoutManager).getEnableSnap()) {
+            // the layout manager settles and notifies by itself
+            return;
+        }
 
         final ViewPagerLayoutManager.OnPageChangeListener onPageChangeListener = ((ViewPagerLayoutManager) layoutManager).onPageChangeListener;
         if (onPageChangeListener != null) {
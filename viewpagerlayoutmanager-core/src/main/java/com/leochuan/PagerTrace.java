@@ -0,0 +1,132 @@
+package com.leochuan;
+
+import android.os.Build;
+import android.os.Trace;
+import android.support.v4.os.TraceCompat;
+import android.util.Log;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Trace sections and counters of {@link ViewPagerLayoutManager}, shown in systrace and
+ * Perfetto next to the ones of RecyclerView. Every call site checks {@link #sEnabled} first,
+ * so nothing is done unless {@link ViewPagerLayoutManager#setTraceEnabled(boolean)} is on.
+ * <p>
+ * Counters are not part of the public api before Android Q, they are written by reflection.
+ * If the method can not be found, or throws, it is logged once and counters are dropped from
+ * then on. A counter is only written when its value changed since the last write, the
+ * arguments are kept per counter, so a write only allocates the box of a value which does not
+ * fit the small value cache of {@link Long} and {@link Integer}, such as most offsets.
+ */
+final class PagerTrace {
+    private static final String TAG = "PagerTrace";
+
+    static final String ON_LAYOUT_CHILDREN = "VPLM OnLayoutChildren";
+    static final String LAYOUT_ITEMS = "VPLM LayoutItems";
+    static final String LAYOUT_SCRAP = "VPLM LayoutScrap";
+    static final String MEASURE = "VPLM Measure";
+    static final String SET_ITEM_VIEW_PROPERTY = "VPLM SetItemViewProperty";
+    static final String REBASE_OFFSET = "VPLM RebaseOffset";
+
+    static final int COUNTER_CHILD_COUNT = 0;
+    static final int COUNTER_OFFSET = 1;
+
+    private static final String[] COUNTER_NAMES = {"VPLM ChildCount", "VPLM Offset"};
+
+    /**
+     * android.os.Trace#TRACE_TAG_APP
+     */
+    private static final long TRACE_TAG_APP = 1L << 12;
+
+    static boolean sEnabled;
+
+    private static Method sCounterMethod;
+
+    private static boolean sCounterMethodFetched;
+
+    /**
+     * Arguments of the counter method for each counter, the value is replaced in place
+     */
+    private static Object[][] sCounterArgs;
+
+    /**
+     * Last value written for each counter, {@link Long#MIN_VALUE} until the first write
+     */
+    private static final long[] sCounterValues = new long[COUNTER_NAMES.length];
+
+    static {
+        Arrays.fill(sCounterValues, Long.MIN_VALUE);
+    }
+
+    private PagerTrace() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        // a new capture should get every counter at least once
+        Arrays.fill(sCounterValues, Long.MIN_VALUE);
+    }
+
+    static void beginSection(String sectionName) {
+        TraceCompat.beginSection(sectionName);
+    }
+
+    static void endSection() {
+        TraceCompat.endSection();
+    }
+
+    /**
+     * @param counter {@link #COUNTER_CHILD_COUNT} or {@link #COUNTER_OFFSET}
+     */
+    static void setCounter(int counter, long value) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+        if (sCounterValues[counter] == value) {
+            return;
+        }
+        fetchCounterMethod();
+        if (sCounterMethod == null) {
+            return;
+        }
+        final Object[] args = sCounterArgs[counter];
+        if (Build.VERSION.SDK_INT >= 29) {
+            args[1] = value;
+        } else {
+            args[2] = (int) value;
+        }
+        try {
+            sCounterMethod.invoke(null, args);
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to write trace counter " + COUNTER_NAMES[counter], e);
+            sCounterMethod = null;
+            return;
+        }
+        sCounterValues[counter] = value;
+    }
+
+    private static void fetchCounterMethod() {
+        if (sCounterMethodFetched) {
+            return;
+        }
+        sCounterMethodFetched = true;
+        try {
+            if (Build.VERSION.SDK_INT >= 29) {
+                sCounterMethod = Trace.class.getMethod("setCounter", String.class, long.class);
+            } else {
+                sCounterMethod = Trace.class.getMethod("traceCounter",
+                        long.class, String.class, int.class);
+            }
+        } catch (NoSuchMethodException e) {
+            Log.i(TAG, "Trace counters are not available", e);
+            return;
+        }
+        sCounterArgs = new Object[COUNTER_NAMES.length][];
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            sCounterArgs[i] = Build.VERSION.SDK_INT >= 29 ?
+                    new Object[]{COUNTER_NAMES[i], 0L} :
+                    new Object[]{TRACE_TAG_APP, COUNTER_NAMES[i], 0};
+        }
+    }
+}
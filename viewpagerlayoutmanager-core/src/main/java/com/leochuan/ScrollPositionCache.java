@@ -0,0 +1,247 @@
+package com.leochuan;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the exact scroll offset of nested carousels by the stable id of their row, so a
+ * row which is recycled and bound again comes back where it was left, in-page fraction
+ * included.
+ * <p>
+ * Typical use in the adapter of the outer RecyclerView:
+ * <pre>
+ * public void onBindViewHolder(RowHolder holder, int position) {
+ *     if (!cache.restore(getItemId(position), holder.layoutManager)) {
+ *         holder.layoutManager.scrollToPosition(0);
+ *     }
+ * }
+ *
+ * public void onViewRecycled(RowHolder holder) {
+ *     cache.save(holder.getItemId(), holder.layoutManager);
+ * }
+ * </pre>
+ * Offsets are kept in primitive arrays sized once from the max size, the least recently used
+ * row is dropped when it is full. Nothing is allocated after construction and nothing goes
+ * through a {@link android.os.Parcel}. Not thread safe, use it on the main thread.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ScrollPositionCache {
+    private static final int NONE = -1;
+
+    private final int mMaxSize;
+
+    private final long[] mIds;
+
+    private final double[] mOffsets;
+
+    /**
+     * Doubly linked list of the used slots, from the most recently used one at {@link #mHead}
+     * to the least recently used one at {@link #mTail}
+     */
+    private final int[] mPrev;
+
+    private final int[] mNext;
+
+    private int mHead = NONE;
+
+    private int mTail = NONE;
+
+    private int mSize;
+
+    /**
+     * Open addressing hash table from id to slot + 1, 0 marks an empty bucket
+     */
+    private final int[] mTable;
+
+    private final int mMask;
+
+    /**
+     * @param maxSize the max number of rows remembered
+     */
+    public ScrollPositionCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize should be at least 1");
+        }
+        mMaxSize = maxSize;
+        mIds = new long[maxSize];
+        mOffsets = new double[maxSize];
+        mPrev = new int[maxSize];
+        mNext = new int[maxSize];
+        // keep the load factor at or below one half
+        final int tableSize = Integer.highestOneBit(maxSize) << 2;
+        mTable = new int[tableSize];
+        mMask = tableSize - 1;
+    }
+
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Remembers the current offset of given layout manager for given row.
+     */
+    public void save(long id, ViewPagerLayoutManager layoutManager) {
+        put(id, layoutManager.getOffset());
+    }
+
+    /**
+     * Scrolls given layout manager to the offset remembered for given row.
+     *
+     * @return false if nothing is remembered for the row, the layout manager is left as is
+     */
+    public boolean restore(long id, ViewPagerLayoutManager layoutManager) {
+        final int bucket = findBucket(id);
+        if (bucket == NONE) {
+            return false;
+        }
+        final int slot = mTable[bucket] - 1;
+        moveToHead(slot);
+        layoutManager.scrollToOffset(mOffsets[slot]);
+        return true;
+    }
+
+    public void put(long id, double offset) {
+        final int bucket = findBucket(id);
+        int slot;
+        if (bucket != NONE) {
+            slot = mTable[bucket] - 1;
+            unlink(slot);
+        } else {
+            if (mSize < mMaxSize) {
+                slot = mSize++;
+            } else {
+                slot = mTail;
+                unlink(slot);
+                removeBucket(findBucket(mIds[slot]));
+            }
+            mIds[slot] = id;
+            insertBucket(id, slot);
+        }
+        mOffsets[slot] = offset;
+        linkAtHead(slot);
+    }
+
+    public boolean contains(long id) {
+        return findBucket(id) != NONE;
+    }
+
+    /**
+     * @return the offset remembered for given row, or fallback if there is none
+     */
+    public double get(long id, double fallback) {
+        final int bucket = findBucket(id);
+        if (bucket == NONE) {
+            return fallback;
+        }
+        final int slot = mTable[bucket] - 1;
+        moveToHead(slot);
+        return mOffsets[slot];
+    }
+
+    public void remove(long id) {
+        final int bucket = findBucket(id);
+        if (bucket == NONE) {
+            return;
+        }
+        final int slot = mTable[bucket] - 1;
+        removeBucket(bucket);
+        unlink(slot);
+        // move the last used slot into the hole so that used slots stay in [0, mSize)
+        final int last = --mSize;
+        if (slot != last) {
+            final int lastBucket = findBucket(mIds[last]);
+            mIds[slot] = mIds[last];
+            mOffsets[slot] = mOffsets[last];
+            mPrev[slot] = mPrev[last];
+            mNext[slot] = mNext[last];
+            if (mPrev[slot] != NONE) mNext[mPrev[slot]] = slot;
+            else mHead = slot;
+            if (mNext[slot] != NONE) mPrev[mNext[slot]] = slot;
+            else mTail = slot;
+            mTable[lastBucket] = slot + 1;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(mTable, 0);
+        mSize = 0;
+        mHead = NONE;
+        mTail = NONE;
+    }
+
+    private static int hash(long id) {
+        final int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the bucket the lookup of given id starts from
+     */
+    int homeBucket(long id) {
+        return hash(id) & mMask;
+    }
+
+    private int findBucket(long id) {
+        for (int i = homeBucket(id); mTable[i] != 0; i = (i + 1) & mMask) {
+            if (mIds[mTable[i] - 1] == id) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private void insertBucket(long id, int slot) {
+        int i = homeBucket(id);
+        while (mTable[i] != 0) {
+            i = (i + 1) & mMask;
+        }
+        mTable[i] = slot + 1;
+    }
+
+    /**
+     * Empties given bucket and shifts the entries probed after it back, so that no lookup
+     * stops early at the hole.
+     */
+    private void removeBucket(int bucket) {
+        int hole = bucket;
+        mTable[hole] = 0;
+        for (int i = (hole + 1) & mMask; mTable[i] != 0; i = (i + 1) & mMask) {
+            final int home = homeBucket(mIds[mTable[i] - 1]);
+            // the entry can fill the hole unless its home bucket lies cyclically in (hole, i]
+            final boolean homeBetween = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+            if (!homeBetween) {
+                mTable[hole] = mTable[i];
+                mTable[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    private void moveToHead(int slot) {
+        if (slot == mHead) {
+            return;
+        }
+        unlink(slot);
+        linkAtHead(slot);
+    }
+
+    private void unlink(int slot) {
+        final int prev = mPrev[slot];
+        final int next = mNext[slot];
+        if (prev != NONE) mNext[prev] = next;
+        else mHead = next;
+        if (next != NONE) mPrev[next] = prev;
+        else mTail = prev;
+    }
+
+    private void linkAtHead(int slot) {
+        mPrev[slot] = NONE;
+        mNext[slot] = mHead;
+        if (mHead != NONE) mPrev[mHead] = slot;
+        mHead = slot;
+        if (mTail == NONE) mTail = slot;
+    }
+}
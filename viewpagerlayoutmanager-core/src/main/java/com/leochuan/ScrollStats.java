@@ -0,0 +1,250 @@
+package com.leochuan;
+
+import java.util.Arrays;
+
+/**
+ * Per frame statistics of a {@link ViewPagerLayoutManager}, enabled by
+ * {@link ViewPagerLayoutManager#setScrollStats(ScrollStats)}.
+ * <p>
+ * Every value is recorded into a preallocated {@link Histogram}, nothing is allocated while
+ * recording. A frame is one call of scrollBy or onLayoutChildren. Call {@link #snapshot(ScrollStats)}
+ * from time to time to copy the numbers out, for example to send them to a telemetry backend,
+ * and {@link #reset()} to start over.
+ * <p>
+ * Not thread safe, record and snapshot on the main thread.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ScrollStats {
+
+    /**
+     * Nanoseconds spent in scrollBy, including layoutItems
+     */
+    public final Histogram scrollTime = new Histogram();
+
+    /**
+     * Nanoseconds spent in layoutItems
+     */
+    public final Histogram layoutItemsTime = new Histogram();
+
+    /**
+     * Nanoseconds spent in onLayoutChildren, including layoutItems
+     */
+    public final Histogram layoutChildrenTime = new Histogram();
+
+    /**
+     * Nanoseconds spent in setItemViewProperty by all children of a frame
+     */
+    public final Histogram itemViewPropertyTime = new Histogram();
+
+    /**
+     * Nanoseconds from a touch event to the end of the next scrollBy, which is when the new
+     * transforms have been applied. Only millisecond precision is available for touch events.
+     */
+    public final Histogram touchLatency = new Histogram();
+
+    /**
+     * Views inflated by the adapter per frame
+     */
+    public final Histogram createdViews = new Histogram();
+
+    /**
+     * Views taken from the recycler per frame, including the created ones. This is an upper
+     * bound of the views bound by the adapter: the recycler also hands out views from scrap,
+     * such as every child detached at the start of a full layout, and from the view cache,
+     * which are not bound again.
+     */
+    public final Histogram fetchedViews = new Histogram();
+
+    /**
+     * Views given back to the recycler per frame
+     */
+    public final Histogram recycledViews = new Histogram();
+
+    /**
+     * Views attached per frame
+     */
+    public final Histogram attachedViews = new Histogram();
+
+    private int mFrameCreated;
+    private int mFrameFetched;
+    private int mFrameRecycled;
+    private int mFrameAttached;
+    private long mFrameItemViewPropertyTime;
+
+    /**
+     * Uptime in milliseconds of the last touch event which has not been followed by a scroll
+     */
+    private long mPendingTouchTime;
+
+    void onViewFetched(boolean created) {
+        mFrameFetched++;
+        if (created) mFrameCreated++;
+    }
+
+    void onViewRecycled() {
+        mFrameRecycled++;
+    }
+
+    void onViewAttached() {
+        mFrameAttached++;
+    }
+
+    void addItemViewPropertyTime(long nanos) {
+        mFrameItemViewPropertyTime += nanos;
+    }
+
+    /**
+     * @param eventTime uptime in milliseconds of a touch move, 0 once the gesture ended
+     */
+    void onTouchEvent(long eventTime) {
+        mPendingTouchTime = eventTime;
+    }
+
+    /**
+     * Records the end of a scrollBy frame.
+     *
+     * @param now uptime in milliseconds
+     */
+    void onScrollFrame(long nanos, long now) {
+        scrollTime.record(nanos);
+        if (mPendingTouchTime != 0) {
+            touchLatency.record((now - mPendingTouchTime) * 1000000L);
+            mPendingTouchTime = 0;
+        }
+        endFrame();
+    }
+
+    void onLayoutFrame(long nanos) {
+        layoutChildrenTime.record(nanos);
+        endFrame();
+    }
+
+    private void endFrame() {
+        createdViews.record(mFrameCreated);
+        fetchedViews.record(mFrameFetched);
+        recycledViews.record(mFrameRecycled);
+        attachedViews.record(mFrameAttached);
+        itemViewPropertyTime.record(mFrameItemViewPropertyTime);
+        mFrameCreated = 0;
+        mFrameFetched = 0;
+        mFrameRecycled = 0;
+        mFrameAttached = 0;
+        mFrameItemViewPropertyTime = 0;
+    }
+
+    public void reset() {
+        scrollTime.reset();
+        layoutItemsTime.reset();
+        layoutChildrenTime.reset();
+        itemViewPropertyTime.reset();
+        touchLatency.reset();
+        createdViews.reset();
+        fetchedViews.reset();
+        recycledViews.reset();
+        attachedViews.reset();
+        endFrame();
+        mPendingTouchTime = 0;
+    }
+
+    /**
+     * Copies every histogram into out without allocating.
+     */
+    public void snapshot(ScrollStats out) {
+        out.scrollTime.set(scrollTime);
+        out.layoutItemsTime.set(layoutItemsTime);
+        out.layoutChildrenTime.set(layoutChildrenTime);
+        out.itemViewPropertyTime.set(itemViewPropertyTime);
+        out.touchLatency.set(touchLatency);
+        out.createdViews.set(createdViews);
+        out.fetchedViews.set(fetchedViews);
+        out.recycledViews.set(recycledViews);
+        out.attachedViews.set(attachedViews);
+    }
+
+    public ScrollStats snapshot() {
+        final ScrollStats snapshot = new ScrollStats();
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * A histogram of non-negative values with power of two buckets, bucket i counts the values
+     * in [2^(i-1), 2^i), bucket 0 counts zeros.
+     */
+    public static final class Histogram {
+        public static final int BUCKET_COUNT = 64;
+
+        private final long[] mBuckets = new long[BUCKET_COUNT];
+        private long mCount;
+        private long mSum;
+        private long mMax;
+
+        public void record(long value) {
+            if (value < 0) value = 0;
+            mBuckets[BUCKET_COUNT - Long.numberOfLeadingZeros(value)]++;
+            mCount++;
+            mSum += value;
+            if (value > mMax) mMax = value;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getSum() {
+            return mSum;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        public double getMean() {
+            return mCount == 0 ? 0 : (double) mSum / mCount;
+        }
+
+        /**
+         * @return the number of values recorded into given bucket
+         */
+        public long getBucket(int index) {
+            return mBuckets[index];
+        }
+
+        /**
+         * @return the upper bound of the bucket holding given percentile, capped by the max
+         * value, 0 if nothing has been recorded
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) return 0;
+            final long rank = (long) Math.ceil(percentile / 100 * mCount);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : Math.min(mMax, (1L << i) - 1);
+                }
+            }
+            return mMax;
+        }
+
+        public void reset() {
+            Arrays.fill(mBuckets, 0);
+            mCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        public void set(Histogram other) {
+            System.arraycopy(other.mBuckets, 0, mBuckets, 0, BUCKET_COUNT);
+            mCount = other.mCount;
+            mSum = other.mSum;
+            mMax = other.mMax;
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{count=" + mCount + ", mean=" + getMean() + ", p50=" + getPercentile(50)
+                    + ", p90=" + getPercentile(90) + ", p99=" + getPercentile(99) + ", max=" + mMax + "}";
+        }
+    }
+}
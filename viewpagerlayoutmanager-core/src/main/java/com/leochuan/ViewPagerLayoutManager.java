@@ -1,22 +1,39 @@
 package com.leochuan;
 
+import android.content.Context;
 import android.graphics.PointF;
-import android.os.Build;
+import android.graphics.Rect;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.LinearLayoutManager;
-import android.support.v7.widget.LinearSmoothScroller;
 import android.support.v7.widget.RecyclerView;
+import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseIntArray;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.widget.OverScroller;
+
+import com.leochuan.geometry.DrawingOrder;
+import com.leochuan.geometry.ItemTransform;
+import com.leochuan.geometry.PagerGeometry;
+import com.leochuan.geometry.SizeIndex;
+
+import java.util.Arrays;
+import java.util.List;
 
 import static android.support.v7.widget.RecyclerView.NO_POSITION;
 
 /**
  * An implementation of {@link RecyclerView.LayoutManager} which behaves like view pager.
- * Please make sure your child view have the same size.
+ * Please make sure your child view have the same size, or enable
+ * {@link #setEnableVariableSize(boolean)}.
  */
 
 @SuppressWarnings("WeakerAccess")
@@ -27,6 +44,35 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
 
     public static final int VERTICAL = OrientationHelper.VERTICAL;
 
+    /**
+     * Duration of a smooth scroll over a single page, longer scrolls are capped by
+     * {@link #setSmoothScrollMaxDuration(int)}
+     */
+    private static final int SMOOTH_SCROLL_PAGE_DURATION = 250;
+
+    /**
+     * View properties which differ less than this from the applied ones are not written
+     */
+    private static final float PROPERTY_EPSILON = 0.001f;
+
+    /**
+     * How far from its saved position the saved anchor is looked for by its stable id, a few
+     * windows of any shipped layout manager. Restoring calls getItemId at most
+     * 2 * this + 1 times however big the adapter is.
+     */
+    private static final int SAVED_ANCHOR_SEARCH_DISTANCE = 64;
+
+    /**
+     * Types of the adapter updates queued in {@link #mPendingSizeUpdates}
+     */
+    private static final int SIZE_UPDATE_ADD = 0;
+
+    private static final int SIZE_UPDATE_REMOVE = 1;
+
+    private static final int SIZE_UPDATE_MOVE = 2;
+
+    private static final int SIZE_UPDATE_LENGTH = 4;
+
     protected int mDecoratedMeasurement;
 
     protected int mDecoratedMeasurementInOther;
@@ -41,9 +87,11 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
     protected int mSpaceInOther;
 
     /**
-     * The offset of property which will change while scrolling
+     * The offset of property which will change while scrolling. It is a double so that the
+     * target offset of every item stays exact with a huge item count, see {@link PagerGeometry}.
+     * It was a float up to 1.3.1, subclasses assigning it to a float need a cast.
      */
-    protected float mOffset;
+    protected double mOffset;
 
     /**
      * Many calculations are made depending on orientation. To keep it clean, this interface
@@ -72,16 +120,250 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
 
     private SavedState mPendingSavedState = null;
 
+    /**
+     * Set by {@link #scrollToOffset(double)} until the next layout completes
+     */
+    private boolean mPendingOffset;
+
+    /**
+     * Adapter position of the centered item, followed through the adapter updates which
+     * happened since the last layout, {@link RecyclerView#NO_POSITION} if there were none
+     */
+    private int mPendingAnchorPosition = NO_POSITION;
+
+    /**
+     * The cycle the centered item was in when the first of those updates came in, counted in
+     * item counts from position 0, always 0 unless infinite scroll is enabled
+     */
+    private int mPendingAnchorCycle;
+
+    /**
+     * Distance from the property of the centered item to the offset when the first of those
+     * updates came in
+     */
+    private double mPendingAnchorFraction;
+
+    /**
+     * Config of the last layout, a layout with the same config keeps the attached children
+     * in place, see {@link #canRelayoutInPlace(RecyclerView.State)}
+     */
+    private int mLastLayoutOrientation = -1;
+
+    private boolean mLastLayoutReverse;
+
+    private boolean mLastLayoutInfinite;
+
+    private int mLastLayoutItemCount;
+
+    private int mLastLayoutTotalSpace;
+
+    private int mLastLayoutTotalSpaceInOther;
+
     protected float mInterval; //the mInterval of each item's mOffset
 
     /* package */ OnPageChangeListener onPageChangeListener;
 
+    private OnPageScrollListener mOnPageScrollListener;
+
+    private boolean mPageScrollDispatchPosted;
+
+    private double mLastDispatchedOffset = Double.NaN;
+
+    private int mLastDispatchedCenter = NO_POSITION;
+
+    private final Runnable mDispatchPageScrolled = new Runnable() {
+        @Override
+        public void run() {
+            mPageScrollDispatchPosted = false;
+            dispatchPageScrolled();
+        }
+    };
+
     private boolean mRecycleChildrenOnDetach;
 
     private boolean mInfinite = false;
 
     private boolean mEnableBringCenterToFront;
 
+    private boolean mEnableTranslationScroll;
+
+    private boolean mEnableVariableSize;
+
+    private boolean mEnableFixedItemSize;
+
+    private boolean mEnableSnap;
+
+    private int mMaxPagesPerFling = Integer.MAX_VALUE;
+
+    /**
+     * Only used to find out how far a fling would travel
+     */
+    private OverScroller mFlingScroller;
+
+    private final RecyclerView.OnFlingListener mOnFlingListener = new RecyclerView.OnFlingListener() {
+        @Override
+        public boolean onFling(int velocityX, int velocityY) {
+            return snapFromFling(mOrientation == HORIZONTAL ? velocityX : velocityY);
+        }
+    };
+
+    private int mSmoothScrollMaxDuration = 600;
+
+    private int mSmoothScrollJumpThreshold = 3;
+
+    private PagerSmoothScroller mSmoothScroller;
+
+    private Interpolator mSmoothScrollInterpolator;
+
+    /**
+     * Virtual position the running smooth scroll ends at, only valid while
+     * {@link #mSmoothScrolling} is set
+     */
+    private int mSmoothScrollTarget;
+
+    private boolean mSmoothScrolling;
+
+    /**
+     * Pages ahead of the scroll direction which are prefetched while scrolling
+     */
+    private int mAdjacentPrefetchItemCount = 1;
+
+    /**
+     * Pages around the current one which are prefetched before the first layout when nested
+     */
+    private int mInitialPrefetchItemCount = 2;
+
+    private boolean mEnableAdaptivePoolSize = true;
+
+    /**
+     * Max recycled views per view type computed from the current config, 0 before the first
+     * layout
+     */
+    private int mPoolSize;
+
+    /**
+     * Pool size last applied to each view type seen since the manager was attached
+     */
+    private final SparseIntArray mAppliedPoolSizes = new SparseIntArray();
+
+    private CarouselPool mCarouselPool;
+
+    private boolean mEnableAutoPlay;
+
+    private int mAutoPlayInterval = 3000;
+
+    /**
+     * Uptime in milliseconds the next page is shown at, {@link Long#MAX_VALUE} while paused
+     */
+    private long mAutoPlayDeadline = Long.MAX_VALUE;
+
+    private boolean mAutoPlayRegistered;
+
+    /**
+     * Set while the countdown is parked because the RecyclerView can not be seen
+     */
+    private boolean mAutoPlayHidden;
+
+    /**
+     * Added to the window while the countdown is parked. A RecyclerView which comes back
+     * into sight is drawn again, which arms the countdown, so a hidden carousel does not
+     * wake {@link AutoPlayClock} up at all.
+     */
+    private final ViewTreeObserver.OnPreDrawListener mAutoPlayVisibilityListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    if (mRecyclerView != null && isAutoPlayVisible()) {
+                        setAutoPlayHidden(false);
+                        mAutoPlayDeadline = SystemClock.uptimeMillis() + mAutoPlayInterval;
+                        AutoPlayClock.getInstance().schedule();
+                    }
+                    return true;
+                }
+            };
+
+    private final Rect mTmpRect = new Rect();
+
+    /**
+     * Measurement of every adapter position, only used when variable size is enabled
+     */
+    private SizeIndex mSizeIndex;
+
+    /**
+     * Set when a child measured during the current layout pass moved the items after it
+     */
+    private boolean mSizeChanged;
+
+    /**
+     * Adapter updates received since the last layout which {@link #mSizeIndex} has not followed
+     * yet, pre-layout still reads the measurements at the positions they had before. Each
+     * update takes {@link #SIZE_UPDATE_LENGTH} ints: the type, the position start, the target
+     * of a move and the item count.
+     */
+    private int[] mPendingSizeUpdates = new int[0];
+
+    private int mPendingSizeUpdateCount;
+
+    private RecyclerView mRecyclerView;
+
+    private final DrawingOrder mDrawingOrder = new DrawingOrder();
+
+    private final RecyclerView.ChildDrawingOrderCallback mChildDrawingOrderCallback =
+            new RecyclerView.ChildDrawingOrderCallback() {
+                @Override
+                public int onGetChildDrawingOrder(int childCount, int i) {
+                    if (childCount != mDrawingOrder.getCount()) {
+                        // the item animator added or removed a view since the last layout
+                        updateDrawingOrder();
+                    }
+                    return mDrawingOrder.getChildIndex(childCount, i);
+                }
+            };
+
+    /**
+     * Position of the first and the last attached child, they may be out of the adapter range
+     * in infinite mode. The child at index i is at mFirstVisiblePosition + i.
+     */
+    private int mFirstVisiblePosition;
+
+    private int mLastVisiblePosition;
+
+    /**
+     * All the offset math is delegated to it, see {@link PagerGeometry}
+     */
+    protected final PagerGeometry mGeometry;
+
+    private final ItemTransform mTmpTransform = new ItemTransform();
+
+    private long mPropertyWriteCount;
+
+    private long mSkippedPropertyWriteCount;
+
+    private ScrollStats mScrollStats;
+
+    /**
+     * Hands the time of touch moves to {@link #mScrollStats}, RecyclerView scrolls right after
+     * dispatching a move, so the scroll which follows is the one caused by it
+     */
+    private final RecyclerView.OnItemTouchListener mStatsTouchListener =
+            new RecyclerView.SimpleOnItemTouchListener() {
+                @Override
+                public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+                    final ScrollStats stats = mScrollStats;
+                    if (stats == null) return false;
+                    switch (e.getActionMasked()) {
+                        case MotionEvent.ACTION_MOVE:
+                            stats.onTouchEvent(e.getEventTime());
+                            break;
+                        case MotionEvent.ACTION_UP:
+                        case MotionEvent.ACTION_CANCEL:
+                            stats.onTouchEvent(0);
+                            break;
+                    }
+                    return false;
+                }
+            };
+
     /**
      * @return the mInterval of each item's mOffset
      */
@@ -92,10 +374,75 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
      */
     protected abstract void setUp();
 
-    protected abstract void setItemViewProperty(View itemView, float targetOffset);
+    /**
+     * Applies the properties computed by {@link PagerGeometry#calItemProperty(float, ItemTransform)}
+     * to the item view. Override this if your effect can not be described by the geometry.
+     */
+    protected void setItemViewProperty(View itemView, float targetOffset) {
+        final ItemTransform transform = mTmpTransform;
+        transform.reset();
+        mGeometry.calItemProperty(targetOffset, transform);
+        applyItemViewProperty(itemView, transform);
+    }
+
+    /**
+     * Writes the view properties of given transform to the item view, skipping the ones which
+     * did not change since the last time they were applied. Every property setter invalidates
+     * the view, so overrides of {@link #setItemViewProperty(View, float)} should prefer this.
+     * Position and stacking weight of the transform are ignored.
+     */
+    protected final void applyItemViewProperty(View itemView, ItemTransform transform) {
+        final LayoutParams lp = (LayoutParams) itemView.getLayoutParams();
+        final ItemTransform applied = lp.mAppliedTransform;
+        final boolean force = !lp.mAppliedTransformValid;
+        if (shouldWrite(force, applied.rotation, transform.rotation)) {
+            itemView.setRotation(applied.rotation = transform.rotation);
+        }
+        if (shouldWrite(force, applied.rotationX, transform.rotationX)) {
+            itemView.setRotationX(applied.rotationX = transform.rotationX);
+        }
+        if (shouldWrite(force, applied.rotationY, transform.rotationY)) {
+            itemView.setRotationY(applied.rotationY = transform.rotationY);
+        }
+        if (shouldWrite(force, applied.scaleX, transform.scaleX)) {
+            itemView.setScaleX(applied.scaleX = transform.scaleX);
+        }
+        if (shouldWrite(force, applied.scaleY, transform.scaleY)) {
+            itemView.setScaleY(applied.scaleY = transform.scaleY);
+        }
+        if (shouldWrite(force, applied.alpha, transform.alpha)) {
+            itemView.setAlpha(applied.alpha = transform.alpha);
+        }
+        lp.mAppliedTransformValid = true;
+    }
+
+    private void applyTranslation(View itemView, float translationX, float translationY) {
+        final LayoutParams lp = (LayoutParams) itemView.getLayoutParams();
+        final ItemTransform applied = lp.mAppliedTransform;
+        final boolean force = !lp.mAppliedTransformValid;
+        if (shouldWrite(force, applied.left, translationX)) {
+            itemView.setTranslationX(applied.left = translationX);
+        }
+        if (shouldWrite(force, applied.top, translationY)) {
+            itemView.setTranslationY(applied.top = translationY);
+        }
+    }
+
+    private boolean shouldWrite(boolean force, float applied, float value) {
+        if (force || Math.abs(applied - value) > PROPERTY_EPSILON) {
+            mPropertyWriteCount++;
+            return true;
+        }
+        mSkippedPropertyWriteCount++;
+        return false;
+    }
 
+    /**
+     * @return the stacking weight of the item view when {@link #setEnableBringCenterToFront(boolean)}
+     * is enabled, items with a bigger weight are drawn above the others
+     */
     protected float setViewElevation(View itemView, float targetOffset) {
-        return 0;
+        return mGeometry.calOrderWeight(targetOffset);
     }
 
     /**
@@ -110,6 +457,16 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
      * @param reverseLayout When set to true, layouts from end to start
      */
     public ViewPagerLayoutManager(int orientation, boolean reverseLayout) {
+        this(orientation, reverseLayout, new PagerGeometry());
+    }
+
+    /**
+     * @param orientation   Layout orientation. Should be {@link #HORIZONTAL} or {@link #VERTICAL}
+     * @param reverseLayout When set to true, layouts from end to start
+     * @param geometry      The geometry which describes how items are laid out
+     */
+    protected ViewPagerLayoutManager(int orientation, boolean reverseLayout, PagerGeometry geometry) {
+        mGeometry = geometry;
         setOrientation(orientation);
         setReverseLayout(reverseLayout);
         setAutoMeasureEnabled(true);
@@ -117,10 +474,31 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
 
     @Override
     public RecyclerView.LayoutParams generateDefaultLayoutParams() {
-        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+        return new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
                 ViewGroup.LayoutParams.WRAP_CONTENT);
     }
 
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
+        return new LayoutParams(c, attrs);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+        if (lp instanceof RecyclerView.LayoutParams) {
+            return new LayoutParams((RecyclerView.LayoutParams) lp);
+        } else if (lp instanceof ViewGroup.MarginLayoutParams) {
+            return new LayoutParams((ViewGroup.MarginLayoutParams) lp);
+        } else {
+            return new LayoutParams(lp);
+        }
+    }
+
+    @Override
+    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
+        return lp instanceof LayoutParams;
+    }
+
     /**
      * Returns whether LayoutManager will recycle its children when it is detached from
      * RecyclerView.
@@ -149,10 +527,43 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         mRecycleChildrenOnDetach = recycleChildrenOnDetach;
     }
 
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        mRecyclerView = view;
+        // the pool may have been replaced while detached
+        mPoolSize = 0;
+        mAppliedPoolSizes.clear();
+        if (mCarouselPool != null) {
+            attachCarouselPool();
+        }
+        updateChildDrawingOrderCallback();
+        updateOnFlingListener();
+        updateStatsTouchListener();
+        updateAutoPlay();
+    }
+
     @Override
     public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
         super.onDetachedFromWindow(view, recycler);
-        if (mRecycleChildrenOnDetach) {
+        if (mEnableBringCenterToFront) {
+            view.setChildDrawingOrderCallback(null);
+        }
+        if (view.getOnFlingListener() == mOnFlingListener) {
+            view.setOnFlingListener(null);
+        }
+        view.removeOnItemTouchListener(mStatsTouchListener);
+        if (mPageScrollDispatchPosted) {
+            view.removeCallbacks(mDispatchPageScrolled);
+            mPageScrollDispatchPosted = false;
+        }
+        setAutoPlayHidden(false);
+        mRecyclerView = null;
+        updateAutoPlay();
+        if (mCarouselPool != null) {
+            mCarouselPool.onCarouselDetached();
+        }
+        if (mRecycleChildrenOnDetach || mCarouselPool != null) {
             removeAndRecycleAllViews(recycler);
             recycler.clear();
         }
@@ -164,8 +575,25 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
             return new SavedState(mPendingSavedState);
         }
         SavedState savedState = new SavedState();
-        savedState.position = getCurrentPositionInternal();
         savedState.isReverseLayout = mReverseLayout;
+        savedState.infinite = mInfinite;
+        final int itemCount = getItemCount();
+        savedState.itemCount = itemCount;
+        if (itemCount == 0 || mDecoratedMeasurement == 0) {
+            return savedState;
+        }
+        final int anchor = getCurrentPositionInternal();
+        savedState.position = mGeometry.getAdapterPosition(anchor);
+        savedState.offset = mOffset;
+        savedState.fraction = mOffset - getProperty(anchor);
+        final RecyclerView.Adapter adapter = mRecyclerView == null ? null : mRecyclerView.getAdapter();
+        if (adapter != null && adapter.hasStableIds()) {
+            savedState.anchorId = adapter.getItemId(savedState.position);
+        }
+        savedState.decoratedMeasurement = mDecoratedMeasurement;
+        savedState.decoratedMeasurementInOther = mDecoratedMeasurementInOther;
+        savedState.totalSpace = mOrientationHelper.getTotalSpace();
+        savedState.totalSpaceInOther = mOrientationHelper.getTotalSpaceInOther();
         return savedState;
     }
 
@@ -271,8 +699,9 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         if (childCount == 0) {
             return null;
         }
-        final int firstChild = getPosition(getChildAt(0));
-        final int viewPosition = position - firstChild;
+        // map the adapter position to the first virtual position in window holding it
+        int viewPosition = position - mGeometry.getAdapterPosition(mFirstVisiblePosition);
+        if (mInfinite && viewPosition < 0) viewPosition += mGeometry.getItemCount();
         if (viewPosition >= 0 && viewPosition < childCount) {
             final View child = getChildAt(viewPosition);
             if (getPosition(child) == position) {
@@ -283,11 +712,135 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         return super.findViewByPosition(position);
     }
 
+    /**
+     * Finds the attached view by its virtual position, which is the same as the adapter
+     * position unless infinite scroll is enabled. In infinite mode virtual positions keep
+     * increasing (or decreasing) past the adapter range, so each attached copy of an item
+     * can be told apart.
+     *
+     * @param virtualPosition virtual position of the item
+     * @return the attached view or null if it is not laid out
+     */
+    public View findViewByVirtualPosition(int virtualPosition) {
+        final int childCount = getChildCount();
+        if (childCount == 0) {
+            return null;
+        }
+        final int index = virtualPosition - mFirstVisiblePosition;
+        if (index >= 0 && index < childCount) {
+            final View child = getChildAt(index);
+            if (getVirtualPosition(child) == virtualPosition) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the virtual position of an attached child
+     * @see #findViewByVirtualPosition(int)
+     */
+    public int getVirtualPosition(View child) {
+        return ((LayoutParams) child.getLayoutParams()).mVirtualPosition;
+    }
+
     @Override
     public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
-        LinearSmoothScroller linearSmoothScroller = new LinearSmoothScroller(recyclerView.getContext());
-        linearSmoothScroller.setTargetPosition(position);
-        startSmoothScroll(linearSmoothScroller);
+        if (getChildCount() == 0) {
+            scrollToPosition(position);
+            return;
+        }
+        // repeated calls continue from where the running scroll ends
+        final int from = mSmoothScrolling ? mSmoothScrollTarget : getCurrentPositionInternal();
+        final int target;
+        if (mInfinite) {
+            // the closest copy of the adapter position
+            final int itemCount = getItemCount();
+            int delta = (position - mGeometry.getAdapterPosition(from)) % itemCount;
+            if (delta > itemCount / 2) delta -= itemCount;
+            else if (delta < -itemCount / 2) delta += itemCount;
+            target = from + delta;
+        } else {
+            target = Math.max(0, Math.min(getItemCount() - 1, position));
+        }
+        smoothScrollToVirtualPosition(target);
+    }
+
+    private void smoothScrollToVirtualPosition(int target) {
+        if (mSmoothScrolling && target == mSmoothScrollTarget) {
+            return;
+        }
+
+        // jump close to a far target so that only the last pages are animated. The jump takes
+        // the path of scrollToOffset, so the next layout rebuilds the window for it, and a
+        // scroll step running before that layout moves the window on from the new offset.
+        final int current = getCurrentPositionInternal();
+        if (Math.abs(target - current) > mSmoothScrollJumpThreshold) {
+            final int jumpTo = target > current ?
+                    target - mSmoothScrollJumpThreshold : target + mSmoothScrollJumpThreshold;
+            scrollToOffset(getProperty(jumpTo));
+        }
+
+        if (mSmoothScroller == null) {
+            mSmoothScroller = new PagerSmoothScroller();
+            mSmoothScrollInterpolator = new DecelerateInterpolator(1.5f);
+        }
+        mSmoothScrollTarget = target;
+        mSmoothScrolling = true;
+        mSmoothScroller.mActionIssued = false;
+        mSmoothScroller.setTargetPosition(mGeometry.getAdapterPosition(target));
+        startSmoothScroll(mSmoothScroller);
+    }
+
+    /**
+     * Runs one animation from the current offset to {@link #mSmoothScrollTarget}. The duration
+     * grows with the distance but never exceeds {@link #mSmoothScrollMaxDuration}.
+     */
+    private class PagerSmoothScroller extends RecyclerView.SmoothScroller {
+        boolean mActionIssued;
+
+        @Override
+        protected void onStart() {
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+            if (!mActionIssued) {
+                issueAction(action);
+            }
+        }
+
+        @Override
+        protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+            // the scroller stops once the target is attached, the animation it started
+            // already ends at the center and keeps running
+            if (!mActionIssued) {
+                issueAction(action);
+            }
+        }
+
+        private void issueAction(Action action) {
+            mActionIssued = true;
+            final float targetOffset = getTargetOffset(mSmoothScrollTarget);
+            final float pages = Math.abs(targetOffset) / mInterval;
+            final int distance = (int) (targetOffset * getDistanceRatio());
+            if (distance == 0) {
+                mSmoothScrolling = false;
+                stop();
+                return;
+            }
+            final int duration = Math.max(1, Math.min(mSmoothScrollMaxDuration,
+                    (int) (SMOOTH_SCROLL_PAGE_DURATION * Math.max(1f, pages))));
+            if (mOrientation == VERTICAL) {
+                action.update(0, distance, duration, mSmoothScrollInterpolator);
+            } else {
+                action.update(distance, 0, duration, mSmoothScrollInterpolator);
+            }
+        }
     }
 
     public PointF computeScrollVectorForPosition(int targetPosition) {
@@ -305,46 +858,494 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
     }
 
     @Override
-    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
-        if (state.getItemCount() == 0) {
-            removeAndRecycleAllViews(recycler);
-            mOffset = 0;
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        final int delta = mOrientation == HORIZONTAL ? dx : dy;
+        final int itemCount = getItemCount();
+        if (getChildCount() == 0 || delta == 0 || itemCount == 0) {
             return;
         }
+        // items enter from the end when the offset grows, unless the layout is reversed
+        final boolean towardsEnd = delta > 0 != mReverseLayout;
+        for (int i = 1; i <= mAdjacentPrefetchItemCount; i++) {
+            final int position = towardsEnd ? mLastVisiblePosition + i : mFirstVisiblePosition - i;
+            if (!mInfinite && (position < 0 || position >= itemCount)) {
+                break;
+            }
+            final float targetOffset = getTargetOffset(position);
+            final float distance;
+            if (targetOffset > mGeometry.getMaxRemoveOffset()) {
+                distance = targetOffset - mGeometry.getMaxRemoveOffset();
+            } else if (targetOffset < mGeometry.getMinRemoveOffset()) {
+                distance = mGeometry.getMinRemoveOffset() - targetOffset;
+            } else {
+                distance = 0;
+            }
+            layoutPrefetchRegistry.addPosition(mGeometry.getAdapterPosition(position),
+                    (int) (distance * getDistanceRatio()));
+        }
+    }
 
-        ensureLayoutState();
-        resolveShouldLayoutReverse();
-
-        if (getChildCount() == 0) {
-            View scrap = recycler.getViewForPosition(0);
-            measureChildWithMargins(scrap, 0, 0);
-            mDecoratedMeasurement = mOrientationHelper.getDecoratedMeasurement(scrap);
-            mDecoratedMeasurementInOther = mOrientationHelper.getDecoratedMeasurementInOther(scrap);
-            mSpaceMain = (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2;
-            mSpaceInOther = (mOrientationHelper.getTotalSpaceInOther() - mDecoratedMeasurementInOther) / 2;
-            mInterval = setInterval();
-            setUp();
+    @Override
+    public void collectInitialPrefetchPositions(int adapterItemCount,
+                                                LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (adapterItemCount == 0) {
+            return;
+        }
+        final int anchor = getAnchorPosition(adapterItemCount);
+        // the anchor first, then alternate between the two sides of it
+        for (int i = 0; i < mInitialPrefetchItemCount && i < adapterItemCount; i++) {
+            int position = anchor + ((i & 1) == 0 ? i / 2 : -(i + 1) / 2);
+            if (mInfinite) {
+                position = (position % adapterItemCount + adapterItemCount) % adapterItemCount;
+            } else if (position < 0 || position >= adapterItemCount) {
+                continue;
+            }
+            layoutPrefetchRegistry.addPosition(position, 0);
         }
+    }
 
+    /**
+     * @return the adapter position the next layout is centered on, which is the pending one
+     * if any, otherwise the one of the kept offset, such as a carousel being reattached
+     */
+    private int getAnchorPosition(int itemCount) {
+        int position;
         if (mPendingSavedState != null) {
-            mReverseLayout = mPendingSavedState.isReverseLayout;
-            mPendingScrollPosition = mPendingSavedState.position;
+            position = mPendingSavedState.position;
+        } else if (mPendingScrollPosition != NO_POSITION) {
+            position = mPendingScrollPosition;
+        } else if (mDecoratedMeasurement != 0) {
+            position = getCurrentPositionInternal();
+        } else {
+            position = 0;
         }
-
-        if (mPendingScrollPosition != NO_POSITION) {
-            mOffset = mReverseLayout ?
-                    mPendingScrollPosition * -mInterval : mPendingScrollPosition * mInterval;
+        if (mInfinite) {
+            return (position % itemCount + itemCount) % itemCount;
         }
-
-        detachAndScrapAttachedViews(recycler);
-        layoutItems(recycler, state);
+        return Math.max(0, Math.min(itemCount - 1, position));
     }
 
     @Override
-    public void onLayoutCompleted(RecyclerView.State state) {
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        final ScrollStats stats = mScrollStats;
+        final long start = stats != null ? System.nanoTime() : 0;
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.ON_LAYOUT_CHILDREN);
+        if (state.getItemCount() == 0) {
+            removeAndRecycleAllViews(recycler);
+            mOffset = 0;
+            if (stats != null) stats.onLayoutFrame(System.nanoTime() - start);
+            if (PagerTrace.sEnabled) PagerTrace.endSection();
+            return;
+        }
+
+        ensureLayoutState();
+        resolveShouldLayoutReverse();
+
+        // pages coming in to replace the removed ones are laid out in pre-layout as well, so
+        // that they slide in instead of fading in
+        int removedCount = 0;
+        if (state.isPreLayout()) {
+            for (int i = 0; i < getChildCount(); i++) {
+                if (((LayoutParams) getChildAt(i).getLayoutParams()).isItemRemoved()) {
+                    removedCount++;
+                }
+            }
+        }
+
+        if (mPendingSavedState != null) {
+            mReverseLayout = mPendingSavedState.isReverseLayout;
+            relocateSavedAnchor(mPendingSavedState, state.getItemCount());
+        }
+
+        if (getChildCount() == 0) {
+            if (!isMeasurementKnown() && !restoreMeasurement(mPendingSavedState)) {
+                // measure the page the layout is going to be centered on, so that it is only
+                // bound once when it is put back below
+                View scrap = recycler.getViewForPosition(getAnchorPosition(state.getItemCount()));
+                measureChild(scrap);
+                mDecoratedMeasurement = mOrientationHelper.getDecoratedMeasurement(scrap);
+                mDecoratedMeasurementInOther = mOrientationHelper.getDecoratedMeasurementInOther(scrap);
+                recycler.recycleView(scrap);
+            }
+            mSpaceMain = (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2;
+            mSpaceInOther = (mOrientationHelper.getTotalSpaceInOther() - mDecoratedMeasurementInOther) / 2;
+            mInterval = setInterval();
+            setUp();
+        }
+
+        syncGeometry(state.getItemCount(), state.isPreLayout());
+
+        if (mPendingSavedState != null) {
+            mOffset = getSavedOffset(mPendingSavedState, state.getItemCount());
+        } else if (mPendingScrollPosition != NO_POSITION) {
+            mOffset = getProperty(mPendingScrollPosition);
+        } else if (mPendingAnchorPosition != NO_POSITION && !state.isPreLayout()) {
+            // pre-layout shows the items where they were, the centered item only moves now.
+            // It stays in its cycle, whose first position depends on the new item count.
+            final int anchor = mPendingAnchorCycle * state.getItemCount() + mPendingAnchorPosition;
+            mOffset = getProperty(anchor) + mPendingAnchorFraction;
+            if (!mInfinite) {
+                mOffset = Math.max(getMinOffset(), Math.min(getMaxOffset(), mOffset));
+            }
+        } else if (mPendingOffset && !mInfinite) {
+            mOffset = Math.max(getMinOffset(), Math.min(getMaxOffset(), mOffset));
+        }
+
+        if (canRelayoutInPlace(state)) {
+            measureDirtyChildren();
+        } else {
+            detachAndScrapAttachedViews(recycler);
+        }
+        layoutItems(recycler, state);
+
+        if (state.isPreLayout()) {
+            if (removedCount > 0) {
+                layoutAppearingViews(recycler, removedCount);
+            }
+        } else if (state.willRunPredictiveAnimations()) {
+            layoutDisappearingViews(recycler);
+        }
+
+        if (mEnableAdaptivePoolSize) {
+            updatePoolSize();
+        }
+
+        if (!state.isPreLayout()) {
+            mLastLayoutOrientation = mOrientation;
+            mLastLayoutReverse = mReverseLayout;
+            mLastLayoutInfinite = mInfinite;
+            mLastLayoutItemCount = state.getItemCount();
+            mLastLayoutTotalSpace = mOrientationHelper.getTotalSpace();
+            mLastLayoutTotalSpaceInOther = mOrientationHelper.getTotalSpaceInOther();
+        }
+
+        if (stats != null) stats.onLayoutFrame(System.nanoTime() - start);
+        if (PagerTrace.sEnabled) PagerTrace.endSection();
+    }
+
+    /**
+     * Most layouts are caused by a child requesting a new layout, for example when an image
+     * finishes loading, or by a change of an effect property. The attached children are then
+     * still the right ones at the right positions and only need to be laid out again.
+     *
+     * @return false if the window has to be rebuilt from scrap, because the data, the
+     * offset or the config changed since the last layout
+     */
+    private boolean canRelayoutInPlace(RecyclerView.State state) {
+        if (getChildCount() == 0 || state.isPreLayout() || state.willRunPredictiveAnimations()
+                || state.didStructureChange()
+                || mPendingSavedState != null || mPendingScrollPosition != NO_POSITION
+                || mPendingOffset || mPendingAnchorPosition != NO_POSITION
+                || mLastLayoutOrientation != mOrientation || mLastLayoutReverse != mReverseLayout
+                || mLastLayoutInfinite != mInfinite || mLastLayoutItemCount != state.getItemCount()
+                || mLastLayoutTotalSpace != mOrientationHelper.getTotalSpace()
+                || mLastLayoutTotalSpaceInOther != mOrientationHelper.getTotalSpaceInOther()) {
+            return false;
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            final LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            // these have to go through the recycler to be bound again
+            if (lp.viewNeedsUpdate() || lp.isViewInvalid() || lp.isItemRemoved()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every item is declared to have the size measured by the last layout,
+     * and the space it was measured in did not change since
+     */
+    private boolean isMeasurementKnown() {
+        return mEnableFixedItemSize && !mEnableVariableSize && mDecoratedMeasurement != 0
+                && mLastLayoutOrientation == mOrientation
+                && mLastLayoutTotalSpace == mOrientationHelper.getTotalSpace()
+                && mLastLayoutTotalSpaceInOther == mOrientationHelper.getTotalSpaceInOther();
+    }
+
+    /**
+     * Measures the children which requested a new layout, layoutItems lays them out again.
+     */
+    private void measureDirtyChildren() {
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            if (!child.isLayoutRequested()) {
+                continue;
+            }
+            measureChild(child);
+            if (mEnableVariableSize) {
+                updateMeasurement(child, mFirstVisiblePosition + i);
+            }
+        }
+    }
+
+    /**
+     * Finds the saved anchor again by its stable id if the adapter changed since the state
+     * was saved. Only positions within {@link #SAVED_ANCHOR_SEARCH_DISTANCE} of the saved one
+     * are looked at, the saved position is kept if the id is gone or moved further.
+     */
+    private void relocateSavedAnchor(SavedState savedState, int itemCount) {
+        final RecyclerView.Adapter adapter = mRecyclerView == null ? null : mRecyclerView.getAdapter();
+        if (savedState.anchorId == RecyclerView.NO_ID || adapter == null || !adapter.hasStableIds()
+                || itemCount == 0) {
+            return;
+        }
+        final int hint = Math.max(0, Math.min(itemCount - 1, savedState.position));
+        // look around the old position first, items usually move by a few positions
+        final int maxDistance = Math.min(itemCount - 1, SAVED_ANCHOR_SEARCH_DISTANCE);
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            final int after = hint + distance;
+            if (after < itemCount && adapter.getItemId(after) == savedState.anchorId) {
+                savedState.position = after;
+                return;
+            }
+            final int before = hint - distance;
+            if (before >= 0 && adapter.getItemId(before) == savedState.anchorId) {
+                savedState.position = before;
+                return;
+            }
+            if (after >= itemCount && before < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes the measurement of the items from the saved state, which saves binding a view to
+     * measure it, as long as the space available to the items is the same.
+     *
+     * @return false if the items need to be measured
+     */
+    private boolean restoreMeasurement(SavedState savedState) {
+        if (savedState == null || savedState.decoratedMeasurement == 0
+                || savedState.totalSpace != mOrientationHelper.getTotalSpace()
+                || savedState.totalSpaceInOther != mOrientationHelper.getTotalSpaceInOther()) {
+            return false;
+        }
+        mDecoratedMeasurement = savedState.decoratedMeasurement;
+        mDecoratedMeasurementInOther = savedState.decoratedMeasurementInOther;
+        return true;
+    }
+
+    /**
+     * @return the exact saved offset if nothing moved the anchor, otherwise the offset of the
+     * anchor at its new position with the saved in-page fraction
+     */
+    private double getSavedOffset(SavedState savedState, int itemCount) {
+        if (savedState.infinite == mInfinite && savedState.itemCount == itemCount
+                && savedState.decoratedMeasurement == mDecoratedMeasurement
+                && mGeometry.getAdapterPosition(getCurrentPositionInternal(savedState.offset))
+                == savedState.position) {
+            return savedState.offset;
+        }
+        final double offset = getProperty(savedState.position) + savedState.fraction;
+        if (mInfinite) {
+            return offset;
+        }
+        return Math.max(getMinOffset(), Math.min(getMaxOffset(), offset));
+    }
+
+    @Override
+    public void onLayoutCompleted(RecyclerView.State state) {
         super.onLayoutCompleted(state);
         mPendingSavedState = null;
         mPendingScrollPosition = NO_POSITION;
+        mPendingOffset = false;
+        mPendingAnchorPosition = NO_POSITION;
+    }
+
+    @Override
+    public boolean supportsPredictiveItemAnimations() {
+        return true;
+    }
+
+    @Override
+    public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        queueSizeUpdate(SIZE_UPDATE_ADD, positionStart, 0, itemCount);
+        final int anchor = getTrackedAnchor();
+        if (anchor != NO_POSITION && positionStart <= anchor) {
+            moveAnchor(itemCount);
+        }
+    }
+
+    @Override
+    public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        queueSizeUpdate(SIZE_UPDATE_REMOVE, positionStart, 0, itemCount);
+        final int anchor = getTrackedAnchor();
+        if (anchor == NO_POSITION || positionStart > anchor) {
+            return;
+        }
+        if (positionStart + itemCount <= anchor) {
+            moveAnchor(-itemCount);
+        } else {
+            // the centered item is gone, the one after the removed range takes its place
+            moveAnchor(positionStart - anchor);
+        }
+    }
+
+    @Override
+    public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        queueSizeUpdate(SIZE_UPDATE_MOVE, from, to, itemCount);
+        final int anchor = getTrackedAnchor();
+        if (anchor == NO_POSITION) {
+            return;
+        }
+        if (anchor >= from && anchor < from + itemCount) {
+            moveAnchor(to - from);
+            return;
+        }
+        int position = anchor;
+        if (from < position) position -= itemCount;
+        if (to <= position) position += itemCount;
+        moveAnchor(position - anchor);
+    }
+
+    @Override
+    public void onItemsChanged(RecyclerView recyclerView) {
+        // positions can not be followed through a full data set change, the measurements are
+        // kept by position and corrected as the items are measured again
+        mPendingAnchorPosition = NO_POSITION;
+        mPendingSizeUpdateCount = 0;
+    }
+
+    /**
+     * Queues an adapter update for {@link #mSizeIndex}, it is applied by the next layout
+     * which is not a pre-layout.
+     */
+    private void queueSizeUpdate(int type, int positionStart, int target, int itemCount) {
+        if (mSizeIndex == null || mSizeIndex.getCount() == 0) {
+            return;
+        }
+        final int index = mPendingSizeUpdateCount * SIZE_UPDATE_LENGTH;
+        if (mPendingSizeUpdates.length < index + SIZE_UPDATE_LENGTH) {
+            mPendingSizeUpdates = Arrays.copyOf(mPendingSizeUpdates,
+                    Math.max(index + SIZE_UPDATE_LENGTH, mPendingSizeUpdates.length * 2));
+        }
+        mPendingSizeUpdates[index] = type;
+        mPendingSizeUpdates[index + 1] = positionStart;
+        mPendingSizeUpdates[index + 2] = target;
+        mPendingSizeUpdates[index + 3] = itemCount;
+        mPendingSizeUpdateCount++;
+    }
+
+    /**
+     * Moves the cached measurements along with their items, so that the offset keeps
+     * pointing at the same page after items are added or removed. The index builds its tree
+     * again once for the whole batch, on the first query after it.
+     */
+    private void applyPendingSizeUpdates() {
+        final int[] updates = mPendingSizeUpdates;
+        for (int i = 0; i < mPendingSizeUpdateCount; i++) {
+            final int index = i * SIZE_UPDATE_LENGTH;
+            if (!applySizeUpdate(updates[index], updates[index + 1], updates[index + 2],
+                    updates[index + 3])) {
+                // the index is out of step with the adapter, the reset which follows resizes it
+                break;
+            }
+        }
+        mPendingSizeUpdateCount = 0;
+    }
+
+    /**
+     * @return false if the update does not fit the positions of {@link #mSizeIndex}
+     */
+    private boolean applySizeUpdate(int type, int positionStart, int target, int itemCount) {
+        final SizeIndex sizeIndex = mSizeIndex;
+        final int count = sizeIndex.getCount();
+        switch (type) {
+            case SIZE_UPDATE_ADD:
+                if (positionStart > count) return false;
+                sizeIndex.insert(positionStart, itemCount);
+                return true;
+            case SIZE_UPDATE_REMOVE:
+                if (positionStart + itemCount > count) return false;
+                sizeIndex.remove(positionStart, itemCount);
+                return true;
+            case SIZE_UPDATE_MOVE:
+                if (positionStart + itemCount > count || target + itemCount > count) return false;
+                sizeIndex.move(positionStart, target, itemCount);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the adapter position of the centered item as of the adapter updates received so
+     * far, or {@link RecyclerView#NO_POSITION} if nothing is laid out
+     */
+    private int getTrackedAnchor() {
+        if (mPendingAnchorPosition == NO_POSITION) {
+            final int itemCount = mGeometry.getItemCount();
+            if (getChildCount() == 0 || itemCount == 0) {
+                return NO_POSITION;
+            }
+            // the geometry still has the item count and the sizes from before the updates
+            final int current = getCurrentPositionInternal();
+            mPendingAnchorPosition = mGeometry.getAdapterPosition(current);
+            mPendingAnchorCycle = (current - mPendingAnchorPosition) / itemCount;
+            mPendingAnchorFraction = mOffset - getProperty(current);
+        }
+        return mPendingAnchorPosition;
+    }
+
+    private void moveAnchor(int delta) {
+        mPendingAnchorPosition += delta;
+    }
+
+    /**
+     * Lays out given number of extra pages on each side of the window in pre-layout, the
+     * ones which move into the window once the removed pages are gone.
+     */
+    private void layoutAppearingViews(RecyclerView.Recycler recycler, int count) {
+        if (getChildCount() == 0) {
+            return;
+        }
+        final int itemCount = mGeometry.getItemCount();
+        for (int i = 0; i < count; i++) {
+            if (mInfinite || mLastVisiblePosition + 1 < itemCount) {
+                addChild(recycler, ++mLastVisiblePosition, false);
+            }
+            if (mInfinite || mFirstVisiblePosition > 0) {
+                addChild(recycler, --mFirstVisiblePosition, true);
+            }
+        }
+    }
+
+    /**
+     * Lays out the pages which were visible before an adapter update but are not any more at
+     * their new offset, so the item animator moves them out of the window. They are added as
+     * disappearing views after the window, so they are counted by {@link #getChildCount()}
+     * until the item animator hides them at the end of the layout.
+     */
+    private void layoutDisappearingViews(RecyclerView.Recycler recycler) {
+        final List<RecyclerView.ViewHolder> scrapList = recycler.getScrapList();
+        if (scrapList.isEmpty() || getChildCount() == 0) {
+            return;
+        }
+        final int itemCount = mGeometry.getItemCount();
+        final int current = getCurrentPositionInternal();
+        final int currentAdapterPosition = mGeometry.getAdapterPosition(current);
+        // adding a view takes it out of the scrap list
+        for (int i = scrapList.size() - 1; i >= 0; i--) {
+            final View view = scrapList.get(i).itemView;
+            final LayoutParams lp = (LayoutParams) view.getLayoutParams();
+            if (lp.isItemRemoved()) {
+                continue;
+            }
+            int delta = lp.getViewLayoutPosition() - currentAdapterPosition;
+            if (mInfinite) {
+                // the closest copy of the item
+                delta %= itemCount;
+                if (delta > itemCount / 2) delta -= itemCount;
+                else if (delta < -itemCount / 2) delta += itemCount;
+            }
+            final int position = current + delta;
+            addDisappearingView(view);
+            lp.mVirtualPosition = position;
+            layoutScrap(view, getTargetOffset(position));
+        }
     }
 
     void ensureLayoutState() {
@@ -353,20 +1354,116 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         }
     }
 
-    private float getProperty(int position) {
-        return !mReverseLayout ? position * mInterval : position * -mInterval;
+    /**
+     * Pushes the current config into {@link #mGeometry}.
+     */
+    private void syncGeometry() {
+        syncGeometry(getItemCount(), false);
+    }
+
+    /**
+     * @param itemCount the item count of the current layout pass, which differs from the
+     *                  adapter in pre-layout
+     * @param preLayout true in pre-layout, where positions are still the ones from before the
+     *                  pending adapter updates
+     */
+    private void syncGeometry(int itemCount, boolean preLayout) {
+        final PagerGeometry geometry = mGeometry;
+        geometry.setOrientation(mOrientation);
+        geometry.setReverseLayout(mReverseLayout);
+        geometry.setInfinite(mInfinite);
+        geometry.setItemCount(itemCount);
+        geometry.setInterval(mInterval);
+        geometry.setSpace(mSpaceMain, mSpaceInOther);
+        geometry.setDecoratedMeasurement(mDecoratedMeasurement, mDecoratedMeasurementInOther);
+        geometry.setTotalSpace(mOrientationHelper.getTotalSpace());
+        geometry.setRemoveOffset(minRemoveOffset(), maxRemoveOffset());
+        if (mEnableVariableSize) {
+            if (mSizeIndex == null) mSizeIndex = new SizeIndex();
+            if (preLayout) {
+                // the index keeps its positions until the updates are applied after pre-layout
+                mSizeIndex.reset(Math.max(itemCount, mSizeIndex.getCount()),
+                        mDecoratedMeasurement, mDecoratedMeasurementInOther);
+            } else {
+                applyPendingSizeUpdates();
+                mSizeIndex.reset(itemCount, mDecoratedMeasurement, mDecoratedMeasurementInOther);
+            }
+            geometry.setSizeIndex(mSizeIndex, 1f / getDistanceRatio());
+        } else {
+            geometry.setSizeIndex(null, 1f);
+        }
+    }
+
+    /**
+     * @see #getItemTransformAt(int, double, ItemTransform)
+     */
+    public ItemTransform getItemTransformAt(int position, double offset) {
+        final ItemTransform transform = new ItemTransform();
+        getItemTransformAt(position, offset, transform);
+        return transform;
+    }
+
+    /**
+     * Computes where the item at given position will be and how it looks like when
+     * the layout manager is scrolled to given offset, without doing a layout pass.
+     * The result is only valid after the first layout.
+     *
+     * @param position position of the item, may be out of the adapter range in infinite mode
+     * @param offset   the scroll offset, see {@link #getOffset()}
+     * @param out      the transform to fill
+     */
+    public void getItemTransformAt(int position, double offset, ItemTransform out) {
+        ensureLayoutState();
+        syncGeometry();
+        mGeometry.getItemTransformAt(position, offset, out);
+    }
+
+    /**
+     * @return the current scroll offset
+     */
+    public double getOffset() {
+        return mOffset;
+    }
+
+    private double getProperty(int position) {
+        return mGeometry.getProperty(position);
+    }
+
+    private float getTargetOffset(int position) {
+        return mGeometry.getTargetOffset(position, mOffset);
     }
 
     @Override
     public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
         removeAllViews();
         mOffset = 0;
+        if (mSizeIndex != null) {
+            mSizeIndex.clear();
+        }
+        mPendingSizeUpdateCount = 0;
+        mAppliedPoolSizes.clear();
     }
 
     @Override
     public void scrollToPosition(int position) {
         mPendingScrollPosition = position;
-        mOffset = mReverseLayout ? position * -mInterval : position * mInterval;
+        mOffset = getProperty(position);
+        requestLayout();
+    }
+
+    /**
+     * Scrolls to an exact offset, such as one returned by {@link #getOffset()} earlier. Unlike
+     * {@link #scrollToPosition(int)} the item may be left between two pages. The offset is
+     * clamped to the offset range on the next layout unless infinite scroll is enabled.
+     *
+     * @param offset the scroll offset
+     * @see ScrollPositionCache
+     */
+    public void scrollToOffset(double offset) {
+        mPendingScrollPosition = NO_POSITION;
+        mPendingSavedState = null;
+        mPendingOffset = true;
+        mOffset = offset;
         requestLayout();
     }
 
@@ -438,6 +1535,167 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         return !mReverseLayout ? (int) getMaxOffset() : (int) Math.abs(getMinOffset());
     }
 
+    @Override
+    public void onScrollStateChanged(int state) {
+        if (state != RecyclerView.SCROLL_STATE_SETTLING) {
+            mSmoothScrolling = false;
+        }
+        if (mAutoPlayRegistered && !mAutoPlayHidden) {
+            // the countdown starts over once the pager comes to rest
+            mAutoPlayDeadline = state == RecyclerView.SCROLL_STATE_IDLE ?
+                    SystemClock.uptimeMillis() + mAutoPlayInterval : Long.MAX_VALUE;
+            AutoPlayClock.getInstance().schedule();
+        }
+        if (!mEnableSnap) {
+            return;
+        }
+        if (onPageChangeListener != null) {
+            onPageChangeListener.onPageScrollStateChanged(state);
+        }
+        if (state != RecyclerView.SCROLL_STATE_IDLE) {
+            return;
+        }
+        // a fling has already been aimed at a page, this only settles a released drag
+        final int delta = getOffsetCenterView();
+        if (delta != 0) {
+            smoothScrollBy(delta);
+        } else if (onPageChangeListener != null) {
+            onPageChangeListener.onPageSelected(getCurrentPosition());
+        }
+    }
+
+    /**
+     * Picks the page where a fling with given velocity would stop and scrolls to it in one
+     * animation.
+     *
+     * @return false if the fling should be handled by RecyclerView
+     */
+    private boolean snapFromFling(int velocity) {
+        if (!mEnableSnap || mRecyclerView == null || getChildCount() == 0
+                || Math.abs(velocity) < mRecyclerView.getMinFlingVelocity()) {
+            return false;
+        }
+        if (mFlingScroller == null) {
+            mFlingScroller = new OverScroller(mRecyclerView.getContext());
+        }
+        mFlingScroller.fling(0, 0, velocity, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        final float flingOffset = mFlingScroller.getFinalX() / getDistanceRatio();
+
+        final int current = getCurrentPositionInternal();
+        final int direction = velocity > 0 != mReverseLayout ? 1 : -1;
+        int pages = (mGeometry.getNearestPosition(mOffset + flingOffset) - current) * direction;
+        if (pages <= 0) {
+            // never settle back against the fling, move on if the current page is already
+            // past the center in the fling direction
+            final int centerDelta = getOffsetCenterView();
+            pages = centerDelta != 0 && centerDelta > 0 != velocity > 0 ? 1 : 0;
+        }
+        pages = Math.min(pages, mMaxPagesPerFling);
+
+        int target = current + pages * direction;
+        if (!mInfinite) {
+            target = Math.max(0, Math.min(getItemCount() - 1, target));
+        }
+        final int delta = (int) (getTargetOffset(target) * getDistanceRatio());
+        if (delta == 0) {
+            return false;
+        }
+        smoothScrollBy(delta);
+        return true;
+    }
+
+    private void smoothScrollBy(int delta) {
+        if (mRecyclerView == null) return;
+        if (mOrientation == VERTICAL) {
+            mRecyclerView.smoothScrollBy(0, delta);
+        } else {
+            mRecyclerView.smoothScrollBy(delta, 0);
+        }
+    }
+
+    private void updateAutoPlay() {
+        if (mEnableAutoPlay && mRecyclerView != null) {
+            mAutoPlayDeadline = mAutoPlayHidden ?
+                    Long.MAX_VALUE : SystemClock.uptimeMillis() + mAutoPlayInterval;
+            mAutoPlayRegistered = true;
+            AutoPlayClock.getInstance().register(this);
+        } else if (mAutoPlayRegistered) {
+            setAutoPlayHidden(false);
+            mAutoPlayDeadline = Long.MAX_VALUE;
+            mAutoPlayRegistered = false;
+            AutoPlayClock.getInstance().unregister(this);
+        }
+    }
+
+    /**
+     * Parks the countdown until the RecyclerView is drawn again, or stops waiting for it.
+     */
+    private void setAutoPlayHidden(boolean hidden) {
+        if (mAutoPlayHidden == hidden) {
+            return;
+        }
+        mAutoPlayHidden = hidden;
+        if (hidden) {
+            mAutoPlayDeadline = Long.MAX_VALUE;
+        }
+        if (mRecyclerView == null) {
+            return;
+        }
+        final ViewTreeObserver observer = mRecyclerView.getViewTreeObserver();
+        if (!observer.isAlive()) {
+            return;
+        }
+        if (hidden) {
+            observer.addOnPreDrawListener(mAutoPlayVisibilityListener);
+        } else {
+            observer.removeOnPreDrawListener(mAutoPlayVisibilityListener);
+        }
+    }
+
+    long getAutoPlayDeadline() {
+        return mAutoPlayDeadline;
+    }
+
+    /**
+     * Called by {@link AutoPlayClock}, turns to the next page if it is due. The countdown is
+     * parked instead if the RecyclerView can not be seen.
+     */
+    void onAutoPlayTick(long now) {
+        if (now < mAutoPlayDeadline || mRecyclerView == null) {
+            return;
+        }
+        if (!isAutoPlayVisible()) {
+            setAutoPlayHidden(true);
+            return;
+        }
+        mAutoPlayDeadline = now + mAutoPlayInterval;
+        final int itemCount = getItemCount();
+        if (itemCount <= 1 || getChildCount() == 0) {
+            return;
+        }
+        final int current = getCurrentPositionInternal();
+        if (mInfinite) {
+            // keeps going forward across the seam, layoutItems rebases the offset on the way
+            smoothScrollToVirtualPosition(current + 1);
+        } else {
+            smoothScrollToVirtualPosition(current + 1 < itemCount ? current + 1 : 0);
+        }
+    }
+
+    private boolean isAutoPlayVisible() {
+        return mRecyclerView.getWindowVisibility() == View.VISIBLE && mRecyclerView.isShown()
+                && mRecyclerView.getGlobalVisibleRect(mTmpRect);
+    }
+
+    private void updateOnFlingListener() {
+        if (mRecyclerView == null) return;
+        if (mEnableSnap) {
+            mRecyclerView.setOnFlingListener(mOnFlingListener);
+        } else if (mRecyclerView.getOnFlingListener() == mOnFlingListener) {
+            mRecyclerView.setOnFlingListener(null);
+        }
+    }
+
     @Override
     public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
         if (mOrientation == VERTICAL) {
@@ -458,11 +1716,14 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         if (getChildCount() == 0 || dy == 0) {
             return 0;
         }
+        final ScrollStats stats = mScrollStats;
+        final long start = stats != null ? System.nanoTime() : 0;
         ensureLayoutState();
+        syncGeometry();
         int willScroll = dy;
 
         float realDx = dy / getDistanceRatio();
-        float targetOffset = mOffset + realDx;
+        double targetOffset = mOffset + realDx;
 
         //handle the boundary
         if (!mInfinite && targetOffset < getMinOffset()) {
@@ -475,130 +1736,453 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
 
         mOffset += realDx;
 
+        layoutItems(recycler, state);
+
+        if (stats != null) stats.onScrollFrame(System.nanoTime() - start, SystemClock.uptimeMillis());
+        return willScroll;
+    }
+
+    /**
+     * Lays out the children for current {@link #mOffset}.
+     * <p>
+     * Children are kept in position order, so only the views entering or leaving at the two
+     * edges of the window are added or removed and the ones in between are moved in place.
+     * The window never exceeds [{@link PagerGeometry#getLayoutStart(float)},
+     * {@link PagerGeometry#getLayoutEnd(float)}), which bounds the number of attached children.
+     */
+    private void layoutItems(RecyclerView.Recycler recycler,
+                             RecyclerView.State state) {
+        final ScrollStats stats = mScrollStats;
+        final long startTime = stats != null ? System.nanoTime() : 0;
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.LAYOUT_ITEMS);
+        final int start = mGeometry.getLayoutStart(mOffset);
+        final int end = mGeometry.getLayoutEnd(mOffset);
+
+        //remove the views which is out of range
+        while (getChildCount() > 0 && !isVisible(mFirstVisiblePosition, start, end)) {
+            removeAndRecycleViewAt(0, recycler);
+            mFirstVisiblePosition++;
+            if (stats != null) stats.onViewRecycled();
+        }
+        while (getChildCount() > 0 && !isVisible(mLastVisiblePosition, start, end)) {
+            removeAndRecycleViewAt(getChildCount() - 1, recycler);
+            mLastVisiblePosition--;
+            if (stats != null) stats.onViewRecycled();
+        }
+
+        final int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            layoutScrap(getChildAt(i), getTargetOffset(mFirstVisiblePosition + i));
+        }
+
+        if (childCount > 0 || addFirstChild(recycler, start, end)) {
+            while (isVisible(mFirstVisiblePosition - 1, start, end)) {
+                addChild(recycler, --mFirstVisiblePosition, true);
+            }
+            while (isVisible(mLastVisiblePosition + 1, start, end)) {
+                addChild(recycler, ++mLastVisiblePosition, false);
+            }
+        }
+
+        if (mSizeChanged) {
+            // children laid out before the new measurement came in are out of place
+            mSizeChanged = false;
+            for (int i = 0; i < getChildCount(); i++) {
+                layoutScrap(getChildAt(i), getTargetOffset(mFirstVisiblePosition + i));
+            }
+        }
+
+        // handle cycle jump, the offset may also land far out of range after a jump
+        final int itemCount = mGeometry.getItemCount();
+        if (mInfinite) {
+            final int current = mGeometry.getNearestPosition(mOffset);
+            if (current <= 0) {
+                rebaseOffset(itemCount * (-current / itemCount + 1));
+            } else if (current > itemCount) {
+                rebaseOffset(-itemCount * ((current - 1) / itemCount));
+            }
+        }
+
+        if (mEnableBringCenterToFront) {
+            updateDrawingOrder();
+        }
+
+        if (mOnPageScrollListener != null && !mPageScrollDispatchPosted && mRecyclerView != null) {
+            mPageScrollDispatchPosted = true;
+            ViewCompat.postOnAnimation(mRecyclerView, mDispatchPageScrolled);
+        }
+
+        if (stats != null) stats.layoutItemsTime.record(System.nanoTime() - startTime);
+        if (PagerTrace.sEnabled) {
+            PagerTrace.setCounter(PagerTrace.COUNTER_CHILD_COUNT, getChildCount());
+            PagerTrace.setCounter(PagerTrace.COUNTER_OFFSET, (long) mOffset);
+            PagerTrace.endSection();
+        }
+    }
+
+    /**
+     * Tells {@link #mOnPageScrollListener} where the offset is, at most once per frame however
+     * many times the pager scrolled during it, and only if the offset changed.
+     */
+    private void dispatchPageScrolled() {
+        final OnPageScrollListener listener = mOnPageScrollListener;
+        final int itemCount = mGeometry.getItemCount();
+        if (listener == null || itemCount == 0 || mOffset == mLastDispatchedOffset) {
+            return;
+        }
+        mLastDispatchedOffset = mOffset;
+
+        // the page before the offset, or at it, and how far the offset is towards the next one
+        final double unsignedOffset = !mReverseLayout ? mOffset : -mOffset;
+        int page = mGeometry.getNearestPosition(mOffset);
+        if (getUnsignedProperty(page) > unsignedOffset) page--;
+        final double pageProperty = getUnsignedProperty(page);
+        final double pageSpan = getUnsignedProperty(page + 1) - pageProperty;
+        final double distance = unsignedOffset - pageProperty;
+        final float fraction = pageSpan > 0 ? (float) (distance / pageSpan) : 0;
+        int position = mInfinite ? mGeometry.getAdapterPosition(page) : page;
+        if (!mInfinite && position < 0) position = 0;
+        listener.onPageScrolled(position, fraction, (int) (distance * getDistanceRatio()));
+
+        final int center = mGeometry.getAdapterPosition(getCurrentPositionInternal());
+        if (center != mLastDispatchedCenter) {
+            mLastDispatchedCenter = center;
+            listener.onCenterItemChanged(center);
+        }
+    }
+
+    /**
+     * @return the property of given position counted from the first item in the layout
+     * direction, so it grows with the position whether the layout is reversed or not
+     */
+    private double getUnsignedProperty(int position) {
+        return !mReverseLayout ? getProperty(position) : -getProperty(position);
+    }
+
+    /**
+     * Sorts the children by their stacking weight, {@link RecyclerView} picks the order up
+     * through {@link #mChildDrawingOrderCallback} when it draws.
+     * <p>
+     * The order is built over the child indices of the RecyclerView, which also count the
+     * views the item animator hides from the layout manager while they animate out. Those
+     * are drawn below the laid out pages.
+     */
+    private void updateDrawingOrder() {
+        final RecyclerView recyclerView = mRecyclerView;
+        if (recyclerView == null) {
+            return;
+        }
+        final int count = recyclerView.getChildCount();
+        final int childCount = getChildCount();
+        final DrawingOrder drawingOrder = mDrawingOrder;
+        drawingOrder.reset(count);
+        // the children of the layout manager are the ones of the RecyclerView in the same
+        // order, minus the hidden ones
+        int child = 0;
+        for (int i = 0; i < count; i++) {
+            final View view = recyclerView.getChildAt(i);
+            if (child < childCount && view == getChildAt(child)) {
+                child++;
+                final int position = ((LayoutParams) view.getLayoutParams()).mVirtualPosition;
+                drawingOrder.setWeight(i, setViewElevation(view, getTargetOffset(position)));
+            } else {
+                drawingOrder.setWeight(i, Float.NEGATIVE_INFINITY);
+            }
+        }
+        drawingOrder.sort();
+    }
+
+    private void updateChildDrawingOrderCallback() {
+        if (mRecyclerView == null) return;
+        mRecyclerView.setChildDrawingOrderCallback(mEnableBringCenterToFront ?
+                mChildDrawingOrderCallback : null);
+    }
+
+    /**
+     * @return true if the item at given position should be attached, start and end are the
+     * bounds returned by the geometry for current offset
+     */
+    private boolean isVisible(int position, int start, int end) {
+        return position >= start && position < end && !removeCondition(getTargetOffset(position));
+    }
+
+    /**
+     * Seeds an empty window with the current item, or the first visible one if the current
+     * item is out of the remove range.
+     *
+     * @return false if no item is visible at all
+     */
+    private boolean addFirstChild(RecyclerView.Recycler recycler, int start, int end) {
+        int position = getCurrentPositionInternal();
+        if (!isVisible(position, start, end)) {
+            position = start;
+            while (position < end && !isVisible(position, start, end)) position++;
+            if (position >= end) return false;
+        }
+        mFirstVisiblePosition = position;
+        mLastVisiblePosition = position;
+        addChild(recycler, position, false);
+        return true;
+    }
+
+    private void addChild(RecyclerView.Recycler recycler, int position, boolean atStart) {
+        final View scrap = recycler.getViewForPosition(mGeometry.getAdapterPosition(position));
+        final LayoutParams lp = (LayoutParams) scrap.getLayoutParams();
+        if (mScrollStats != null) {
+            // a view which has never been attached has fresh layout params. This only holds
+            // because resetViewProperty below validates the applied transform of every view
+            // it adds, whatever setItemViewProperty does afterwards.
+            mScrollStats.onViewFetched(!lp.mAppliedTransformValid);
+            mScrollStats.onViewAttached();
+        }
+        lp.mVirtualPosition = position;
+        if (mEnableAdaptivePoolSize && mPoolSize > 0) {
+            applyPoolSize(getItemViewType(scrap));
+        }
+        if (!isMeasurementKnown() || scrap.isLayoutRequested()
+                || mOrientationHelper.getDecoratedMeasurement(scrap) != mDecoratedMeasurement
+                || mOrientationHelper.getDecoratedMeasurementInOther(scrap) != mDecoratedMeasurementInOther) {
+            measureChild(scrap);
+        }
+        if (mEnableVariableSize) {
+            updateMeasurement(scrap, position);
+        }
+        resetViewProperty(scrap);
+        layoutScrap(scrap, getTargetOffset(position));
+        if (atStart) {
+            addView(scrap, 0);
+        } else {
+            addView(scrap);
+        }
+    }
+
+    /**
+     * Recomputes the pool size from the current config and applies it to every view type
+     * seen so far if it changed.
+     */
+    private void updatePoolSize() {
+        final int maxVisibleCount = mGeometry.getMaxVisibleCount();
+        final int poolSize = maxVisibleCount > Integer.MAX_VALUE - mAdjacentPrefetchItemCount ?
+                Integer.MAX_VALUE : maxVisibleCount + mAdjacentPrefetchItemCount;
+        if (poolSize == mPoolSize) {
+            return;
+        }
+        mPoolSize = poolSize;
+        for (int i = 0; i < mAppliedPoolSizes.size(); i++) {
+            applyPoolSize(mAppliedPoolSizes.keyAt(i));
+        }
         for (int i = 0; i < getChildCount(); i++) {
-            final View scrap = getChildAt(i);
-            final float delta = propertyChangeWhenScroll(scrap) - realDx;
-            layoutScrap(scrap, delta);
+            applyPoolSize(getItemViewType(getChildAt(i)));
         }
-
-        layoutItems(recycler, state);
-
-        return willScroll;
     }
 
-    private void layoutItems(RecyclerView.Recycler recycler,
-                             RecyclerView.State state) {
-        if (mEnableBringCenterToFront && Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
-            detachAndScrapAttachedViews(recycler);
+    private void applyPoolSize(int viewType) {
+        if (mRecyclerView == null || mAppliedPoolSizes.get(viewType, -1) == mPoolSize) {
+            return;
+        }
+        mAppliedPoolSizes.put(viewType, mPoolSize);
+        if (mCarouselPool != null) {
+            mCarouselPool.requestPoolSize(viewType, mPoolSize);
         } else {
-            //remove the views which is out of range
-            for (int i = 0; i < getChildCount(); i++) {
-                final View view = getChildAt(i);
-                final int position = getPosition(view);
-                if (removeCondition(getProperty(position) - mOffset)) {
-                    removeAndRecycleView(view, recycler);
-                }
-            }
+            mRecyclerView.getRecycledViewPool().setMaxRecycledViews(viewType, mPoolSize);
         }
+    }
 
-        final int currentPos = getCurrentPositionInternal();
-        final float curOffset = getProperty(currentPos) - mOffset;
-
-        int start = (int) (currentPos - Math.abs(((curOffset - minRemoveOffset()) / mInterval))) - 1;
-        int end = (int) (currentPos + Math.abs(((curOffset - maxRemoveOffset()) / mInterval))) + 1;
-
-        if (start < 0 && !mInfinite) start = 0;
-        final int itemCount = getItemCount();
-        if (end > itemCount && !mInfinite) end = itemCount;
-
-        float lastOrderWeight = Float.MIN_VALUE;
-        for (int i = start; i < end; i++) {
-            if (!removeCondition(getProperty(i) - mOffset)) {
-                int realIndex = i;
-                if (i >= itemCount) {
-                    realIndex %= itemCount;
-                } else if (i < 0) {
-                    int delta = (-realIndex) % itemCount;
-                    if (delta == 0) delta = itemCount;
-                    realIndex = itemCount - delta;
-                }
-                if (findViewByPosition(i) == null) {
-                    final View scrap = recycler.getViewForPosition(realIndex);
-                    measureChildWithMargins(scrap, 0, 0);
-                    resetViewProperty(scrap);
-                    final float targetOffset = getProperty(i) - mOffset;
-                    layoutScrap(scrap, targetOffset);
-                    final float orderWeight = mEnableBringCenterToFront ? setViewElevation(scrap, targetOffset)
-                            : realIndex;
-                    if (orderWeight > lastOrderWeight) {
-                        addView(scrap);
-                    } else {
-                        addView(scrap, 0);
-                    }
-                    lastOrderWeight = orderWeight;
-                }
-            }
+    private void attachCarouselPool() {
+        if (mRecyclerView.getRecycledViewPool() != mCarouselPool.getRecycledViewPool()) {
+            mRecyclerView.setRecycledViewPool(mCarouselPool.getRecycledViewPool());
         }
+        mCarouselPool.onCarouselAttached();
+    }
 
-        // handle cycle jump
-        if (mInfinite) {
-            if (getCurrentPositionInternal() == 0) {
-                removeAndRecycleAllViews(recycler);
-                internalScrollToPosition(itemCount, recycler, state);
-            } else if (getCurrentPositionInternal() == itemCount + 1) {
-                removeAndRecycleAllViews(recycler);
-                internalScrollToPosition(1, recycler, state);
-            }
+    private void measureChild(View child) {
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.MEASURE);
+        measureChildWithMargins(child, 0, 0);
+        if (PagerTrace.sEnabled) PagerTrace.endSection();
+    }
+
+    /**
+     * Caches the measurement of a newly added child. If it differs from the cached one, the
+     * offset is moved by the same amount as the centered item so that it stays in place.
+     */
+    private void updateMeasurement(View child, int position) {
+        final int adapterPosition = mGeometry.getAdapterPosition(position);
+        final int measurement = mOrientationHelper.getDecoratedMeasurement(child);
+        final int measurementInOther = mOrientationHelper.getDecoratedMeasurementInOther(child);
+        if (measurement == mSizeIndex.getMeasurement(adapterPosition)) {
+            mSizeIndex.set(adapterPosition, measurement, measurementInOther);
+            return;
         }
+        final int anchor = getCurrentPositionInternal();
+        final double anchorProperty = getProperty(anchor);
+        mSizeIndex.set(adapterPosition, measurement, measurementInOther);
+        mOffset += getProperty(anchor) - anchorProperty;
+        mSizeChanged = true;
     }
 
-    private void internalScrollToPosition(int position, RecyclerView.Recycler recycler, RecyclerView.State state) {
-        mOffset = mReverseLayout ? position * -mInterval : position * mInterval;
-        layoutItems(recycler, state);
+    /**
+     * Moves the offset and every attached child by given number of positions, which has to be
+     * a multiple of the item count. The adapter position and the target offset of each child
+     * stay the same, so nothing is rebound or laid out again when crossing the seam in
+     * infinite mode.
+     */
+    private void rebaseOffset(int positionDelta) {
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.REBASE_OFFSET);
+        mOffset += getProperty(positionDelta);
+        mFirstVisiblePosition += positionDelta;
+        mLastVisiblePosition += positionDelta;
+        mSmoothScrollTarget += positionDelta;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            ((LayoutParams) getChildAt(i).getLayoutParams()).mVirtualPosition += positionDelta;
+        }
+        if (PagerTrace.sEnabled) PagerTrace.endSection();
     }
 
     private boolean removeCondition(float targetOffset) {
-        return targetOffset > maxRemoveOffset() || targetOffset < minRemoveOffset();
+        return mGeometry.removeCondition(targetOffset);
     }
 
+    /**
+     * Resets the view properties of a newly added view to identity. The view may come back
+     * from the recycler with the properties of its last position, or with whatever an item
+     * animator left, and {@link #setItemViewProperty(View, float)} may only write some of
+     * them. Reading a property is cheap while every write invalidates the view, so only the
+     * ones which are not identity already are written.
+     */
     private void resetViewProperty(View v) {
-        v.setRotation(0);
-        v.setRotationY(0);
-        v.setRotationX(0);
-        v.setScaleX(1f);
-        v.setScaleY(1f);
-        v.setAlpha(1f);
+        final LayoutParams lp = (LayoutParams) v.getLayoutParams();
+        final ItemTransform applied = lp.mAppliedTransform;
+        applied.reset();
+        applied.left = 0;
+        applied.top = 0;
+        lp.mAppliedTransformValid = true;
+        if (v.getRotation() != 0) {
+            v.setRotation(0);
+            mPropertyWriteCount++;
+        }
+        if (v.getRotationX() != 0) {
+            v.setRotationX(0);
+            mPropertyWriteCount++;
+        }
+        if (v.getRotationY() != 0) {
+            v.setRotationY(0);
+            mPropertyWriteCount++;
+        }
+        if (v.getScaleX() != 1f) {
+            v.setScaleX(1f);
+            mPropertyWriteCount++;
+        }
+        if (v.getScaleY() != 1f) {
+            v.setScaleY(1f);
+            mPropertyWriteCount++;
+        }
+        if (v.getAlpha() != 1f) {
+            v.setAlpha(1f);
+            mPropertyWriteCount++;
+        }
+        if (v.getTranslationX() != 0) {
+            v.setTranslationX(0);
+            mPropertyWriteCount++;
+        }
+        if (v.getTranslationY() != 0) {
+            v.setTranslationY(0);
+            mPropertyWriteCount++;
+        }
     }
 
-    private float getMaxOffset() {
-        return !mReverseLayout ?
-                (mInfinite ? (getItemCount() + 1) : (getItemCount() - 1)) * mInterval : 0;
+    private double getMaxOffset() {
+        return mGeometry.getMaxOffset();
     }
 
-    private float getMinOffset() {
-        return !mReverseLayout ?
-                0 : -(mInfinite ? (getItemCount() + 1) : (getItemCount() - 1)) * mInterval;
+    private double getMinOffset() {
+        return mGeometry.getMinOffset();
     }
 
     private void layoutScrap(View scrap, float targetOffset) {
-        final int left = calMainDirection(targetOffset);
-        final int top = calOtherDirection(targetOffset);
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.LAYOUT_SCRAP);
+        if (mEnableTranslationScroll) {
+            layoutScrapAtAnchor(scrap);
+            applyTranslation(scrap, mGeometry.calMainDirection(targetOffset),
+                    mGeometry.calOtherDirection(targetOffset));
+        } else {
+            layoutDecoratedAt(scrap, calMainDirection(targetOffset), calOtherDirection(targetOffset));
+            // left over from translation scroll
+            applyTranslation(scrap, 0, 0);
+        }
+        dispatchItemViewProperty(scrap, targetOffset);
+        if (PagerTrace.sEnabled) PagerTrace.endSection();
+    }
+
+    private void dispatchItemViewProperty(View scrap, float targetOffset) {
+        if (PagerTrace.sEnabled) PagerTrace.beginSection(PagerTrace.SET_ITEM_VIEW_PROPERTY);
+        final ScrollStats stats = mScrollStats;
+        if (stats == null) {
+            setItemViewProperty(scrap, targetOffset);
+        } else {
+            final long start = System.nanoTime();
+            setItemViewProperty(scrap, targetOffset);
+            stats.addItemViewPropertyTime(System.nanoTime() - start);
+        }
+        if (PagerTrace.sEnabled) PagerTrace.endSection();
+    }
+
+    /**
+     * Lays the child out at the position of the centered item, which only happens the first
+     * time it is attached or when it requests a new layout.
+     */
+    private void layoutScrapAtAnchor(View scrap) {
+        final int spaceMain = getSpaceMain(scrap);
+        final int spaceInOther = getSpaceInOther(scrap);
+        final int left = mOrientation == VERTICAL ? spaceInOther : spaceMain;
+        final int top = mOrientation == VERTICAL ? spaceMain : spaceInOther;
+        if (!scrap.isLayoutRequested()
+                && getDecoratedLeft(scrap) == left && getDecoratedTop(scrap) == top) {
+            return;
+        }
+        layoutDecoratedAt(scrap, 0, 0);
+    }
+
+    /**
+     * Lays the child out with given distance to the centered item.
+     */
+    private void layoutDecoratedAt(View scrap, int left, int top) {
+        final int spaceMain = getSpaceMain(scrap);
+        final int spaceInOther = getSpaceInOther(scrap);
+        final int measurement = mEnableVariableSize ?
+                mOrientationHelper.getDecoratedMeasurement(scrap) : mDecoratedMeasurement;
+        final int measurementInOther = mEnableVariableSize ?
+                mOrientationHelper.getDecoratedMeasurementInOther(scrap) : mDecoratedMeasurementInOther;
         if (mOrientation == VERTICAL) {
-            layoutDecorated(scrap, mSpaceInOther + left, mSpaceMain + top,
-                    mSpaceInOther + left + mDecoratedMeasurementInOther, mSpaceMain + top + mDecoratedMeasurement);
+            layoutDecorated(scrap, spaceInOther + left, spaceMain + top,
+                    spaceInOther + left + measurementInOther, spaceMain + top + measurement);
         } else {
-            layoutDecorated(scrap, mSpaceMain + left, mSpaceInOther + top,
-                    mSpaceMain + left + mDecoratedMeasurement, mSpaceInOther + top + mDecoratedMeasurementInOther);
+            layoutDecorated(scrap, spaceMain + left, spaceInOther + top,
+                    spaceMain + left + measurement, spaceInOther + top + measurementInOther);
         }
-        setItemViewProperty(scrap, targetOffset);
+    }
+
+    /**
+     * @return {@link #mSpaceMain}, moved so that the child is centered on its own measurement
+     * when variable size is enabled
+     */
+    private int getSpaceMain(View child) {
+        if (!mEnableVariableSize) return mSpaceMain;
+        return mSpaceMain
+                - (mOrientationHelper.getDecoratedMeasurement(child) - mDecoratedMeasurement) / 2;
+    }
+
+    private int getSpaceInOther(View child) {
+        if (!mEnableVariableSize) return mSpaceInOther;
+        return mSpaceInOther - (mOrientationHelper.getDecoratedMeasurementInOther(child)
+                - mDecoratedMeasurementInOther) / 2;
     }
 
     protected int calMainDirection(float targetOffset) {
-        return mOrientation == VERTICAL ? 0 : (int) targetOffset;
+        return (int) mGeometry.calMainDirection(targetOffset);
     }
 
     protected int calOtherDirection(float targetOffset) {
-        return mOrientation == VERTICAL ? (int) targetOffset : 0;
+        return (int) mGeometry.calOtherDirection(targetOffset);
     }
 
     protected float maxRemoveOffset() {
@@ -609,6 +2193,11 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         return -mDecoratedMeasurement - mOrientationHelper.getStartAfterPadding() - mSpaceMain;
     }
 
+    /**
+     * @deprecated the target offset of each child is now derived from its position, this
+     * method is no longer called.
+     */
+    @Deprecated
     protected float propertyChangeWhenScroll(View itemView) {
         if (mOrientation == VERTICAL)
             return itemView.getTop() - mSpaceMain;
@@ -627,18 +2216,33 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
     }
 
     private int getCurrentPositionInternal() {
-        return Math.round(Math.abs(mOffset) / mInterval);
+        return mGeometry.getCurrentPositionInternal(mOffset);
+    }
+
+    private int getCurrentPositionInternal(double offset) {
+        return mGeometry.getCurrentPositionInternal(offset);
     }
 
     public int getOffsetCenterView() {
-        return (int) ((getCurrentPositionInternal() * (!mReverseLayout ?
-                mInterval : -mInterval) - mOffset) * getDistanceRatio());
+        return (int) (getTargetOffset(getCurrentPositionInternal()) * getDistanceRatio());
     }
 
     public void setOnPageChangeListener(OnPageChangeListener onPageChangeListener) {
         this.onPageChangeListener = onPageChangeListener;
     }
 
+    /**
+     * Sets a listener which follows the scroll offset, it is called at most once per frame
+     * and nothing is allocated to call it.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setOnPageScrollListener(OnPageScrollListener listener) {
+        mOnPageScrollListener = listener;
+        mLastDispatchedOffset = Double.NaN;
+        mLastDispatchedCenter = NO_POSITION;
+    }
+
     public void setInfinite(boolean enable) {
         assertNotInLayoutOrScroll(null);
         if (enable == mInfinite) {
@@ -678,6 +2282,7 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
             return;
         }
         this.mEnableBringCenterToFront = bringCenterToTop;
+        updateChildDrawingOrderCallback();
         requestLayout();
     }
 
@@ -685,6 +2290,376 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         return mEnableBringCenterToFront;
     }
 
+    /**
+     * When enabled, every child is laid out once at the position of the centered item and
+     * moved with {@link View#setTranslationX(float)} and {@link View#setTranslationY(float)}
+     * while scrolling. Translation is a render property, so no layout happens per frame and
+     * positions keep their sub-pixel precision.
+     * <p>
+     * Positions are taken from the {@link PagerGeometry} directly in this mode, overrides of
+     * {@link #calMainDirection(float)} and {@link #calOtherDirection(float)} are not used.
+     * Item decorations and item animators which rely on the layout position of the children
+     * will see every child at the center.
+     *
+     * @param enable Whether or not to scroll by translation
+     */
+    public void setEnableTranslationScroll(boolean enable) {
+        assertNotInLayoutOrScroll(null);
+        if (mEnableTranslationScroll == enable) {
+            return;
+        }
+        mEnableTranslationScroll = enable;
+        requestLayout();
+    }
+
+    public boolean getEnableTranslationScroll() {
+        return mEnableTranslationScroll;
+    }
+
+    /**
+     * When enabled, items may differ in size. The measurement of each position is cached the
+     * first time it is attached, positions which have not been attached yet are assumed to have
+     * the size of the first item. Every item is centered on its own measurement and the
+     * distance between two adjacent items grows or shrinks by the average of their size
+     * differences, converted by {@link #getDistanceRatio()}.
+     * <p>
+     * Offsets are kept in a prefix-sum index, so finding the current position and the visible
+     * window stays O(log n) in the item count.
+     *
+     * @param enable Whether or not items may have different sizes
+     */
+    public void setEnableVariableSize(boolean enable) {
+        assertNotInLayoutOrScroll(null);
+        if (mEnableVariableSize == enable) {
+            return;
+        }
+        mEnableVariableSize = enable;
+        if (!enable) mSizeIndex = null;
+        removeAllViews();
+        requestLayout();
+    }
+
+    public boolean getEnableVariableSize() {
+        return mEnableVariableSize;
+    }
+
+    /**
+     * Declares that every item has the same size, whatever it is bound to. A view which
+     * already has that size and has not requested a layout is then attached without being
+     * measured again, and a layout with no children, such as the one of a carousel being
+     * reattached, reuses the known size instead of binding a view to measure it.
+     * Ignored when {@link #setEnableVariableSize(boolean)} is enabled. Turning it off measures
+     * every page again on the next layout.
+     *
+     * @param enable Whether or not all items have the same fixed size
+     */
+    public void setEnableFixedItemSize(boolean enable) {
+        assertNotInLayoutOrScroll(null);
+        if (mEnableFixedItemSize == enable) {
+            return;
+        }
+        mEnableFixedItemSize = enable;
+        // the attached pages may have skipped a measure on the strength of the declaration
+        if (!enable) removeAllViews();
+        requestLayout();
+    }
+
+    public boolean getEnableFixedItemSize() {
+        return mEnableFixedItemSize;
+    }
+
+    /**
+     * When enabled, the pager always comes to rest with a page at the center. A fling picks
+     * its page from the release velocity, taking {@link #getDistanceRatio()} into account,
+     * and lands on it in a single animation, a released drag settles on the closest page.
+     * {@link OnPageChangeListener} is notified as well, so {@link CenterScrollListener} is not
+     * needed any more.
+     * <p>
+     * This sets an {@link RecyclerView.OnFlingListener} on the attached RecyclerView, do not
+     * use it together with a {@link android.support.v7.widget.SnapHelper}.
+     *
+     * @param enable Whether or not to snap to the center page
+     */
+    public void setEnableSnap(boolean enable) {
+        if (mEnableSnap == enable) {
+            return;
+        }
+        mEnableSnap = enable;
+        updateOnFlingListener();
+    }
+
+    public boolean getEnableSnap() {
+        return mEnableSnap;
+    }
+
+    /**
+     * Limits how many pages a single fling may travel when snapping is enabled.
+     * Default value is {@link Integer#MAX_VALUE}.
+     *
+     * @param maxPagesPerFling Max pages a fling can travel, at least 1
+     * @see #setEnableSnap(boolean)
+     */
+    public void setMaxPagesPerFling(int maxPagesPerFling) {
+        if (maxPagesPerFling < 1) {
+            throw new IllegalArgumentException("maxPagesPerFling should be at least 1");
+        }
+        mMaxPagesPerFling = maxPagesPerFling;
+    }
+
+    public int getMaxPagesPerFling() {
+        return mMaxPagesPerFling;
+    }
+
+    /**
+     * When enabled, the pager smooth scrolls to the next page every
+     * {@link #setAutoPlayInterval(int)}, and from the last page back to the first one unless
+     * infinite scroll is enabled, in which case it keeps going across the seam.
+     * <p>
+     * The countdown is paused while the pager is dragged or scrolling and starts over once it
+     * comes to rest. Nothing is scheduled while the RecyclerView is detached, hidden or
+     * scrolled out of the screen, the countdown starts over once it is drawn in sight again.
+     * Every autoplaying pager shares a single frame callback.
+     *
+     * @param enable Whether or not to turn pages automatically
+     */
+    public void setEnableAutoPlay(boolean enable) {
+        if (mEnableAutoPlay == enable) {
+            return;
+        }
+        mEnableAutoPlay = enable;
+        updateAutoPlay();
+    }
+
+    public boolean getEnableAutoPlay() {
+        return mEnableAutoPlay;
+    }
+
+    /**
+     * Sets how long each page is shown when autoplay is enabled. Default value is 3000ms.
+     *
+     * @param interval Interval in milliseconds, greater than 0
+     * @see #setEnableAutoPlay(boolean)
+     */
+    public void setAutoPlayInterval(int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval should be greater than 0");
+        }
+        mAutoPlayInterval = interval;
+        updateAutoPlay();
+    }
+
+    public int getAutoPlayInterval() {
+        return mAutoPlayInterval;
+    }
+
+    /**
+     * Sets the upper bound of the duration of {@link RecyclerView#smoothScrollToPosition(int)}.
+     * Default value is 600ms.
+     *
+     * @param duration Max duration in milliseconds, greater than 0
+     */
+    public void setSmoothScrollMaxDuration(int duration) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("duration should be greater than 0");
+        }
+        mSmoothScrollMaxDuration = duration;
+    }
+
+    public int getSmoothScrollMaxDuration() {
+        return mSmoothScrollMaxDuration;
+    }
+
+    /**
+     * When {@link RecyclerView#smoothScrollToPosition(int)} targets a page further away than
+     * this, the pager jumps to this many pages before the target and only animates the rest.
+     * Default value is 3.
+     *
+     * @param pages Max pages animated by a smooth scroll, at least 0
+     */
+    public void setSmoothScrollJumpThreshold(int pages) {
+        if (pages < 0) {
+            throw new IllegalArgumentException("pages should be at least 0");
+        }
+        mSmoothScrollJumpThreshold = pages;
+    }
+
+    public int getSmoothScrollJumpThreshold() {
+        return mSmoothScrollJumpThreshold;
+    }
+
+    /**
+     * @return the number of view property writes since the last
+     * {@link #resetPropertyWriteCount()}
+     */
+    public long getPropertyWriteCount() {
+        return mPropertyWriteCount;
+    }
+
+    /**
+     * @return the number of view property writes skipped because the value did not change
+     * since the last {@link #resetPropertyWriteCount()}
+     */
+    public long getSkippedPropertyWriteCount() {
+        return mSkippedPropertyWriteCount;
+    }
+
+    public void resetPropertyWriteCount() {
+        mPropertyWriteCount = 0;
+        mSkippedPropertyWriteCount = 0;
+    }
+
+    /**
+     * Computes how many items can be attached at the same time with the current config,
+     * from the interval, {@link #minRemoveOffset()} and {@link #maxRemoveOffset()}. With
+     * variable size enabled, the smallest measured item is taken into account.
+     *
+     * @return the max visible count, or 0 before the first layout
+     */
+    public int estimateMaxVisibleCount() {
+        if (mDecoratedMeasurement == 0 || getItemCount() == 0) {
+            return 0;
+        }
+        ensureLayoutState();
+        syncGeometry();
+        return mGeometry.getMaxVisibleCount();
+    }
+
+    /**
+     * When enabled, the max recycled views of each view type in the
+     * {@link RecyclerView.RecycledViewPool} of the attached RecyclerView is set to
+     * {@link #estimateMaxVisibleCount()} plus {@link #getAdjacentPrefetchItemCount()}, so that
+     * a whole window of pages can be recycled and reused without inflating. It is updated
+     * whenever the config changes. Default value is true.
+     *
+     * @param enable Whether or not to size the pool from the visible window
+     */
+    public void setEnableAdaptivePoolSize(boolean enable) {
+        if (mEnableAdaptivePoolSize == enable) {
+            return;
+        }
+        mEnableAdaptivePoolSize = enable;
+        mPoolSize = 0;
+        mAppliedPoolSizes.clear();
+        requestLayout();
+    }
+
+    public boolean getEnableAdaptivePoolSize() {
+        return mEnableAdaptivePoolSize;
+    }
+
+    /**
+     * Turns on the nested carousel mode, for a RecyclerView which is a row of another
+     * scrolling RecyclerView. Pass the same pool to the layout manager of every row.
+     * <ul>
+     * <li>The RecyclerView of the row uses the {@link RecyclerView.RecycledViewPool} of the
+     * given pool, sized for the peak number of rows attached at the same time when
+     * {@link #setEnableAdaptivePoolSize(boolean)} is enabled.</li>
+     * <li>Children are recycled into it when the row is detached, whatever
+     * {@link #setRecycleChildrenOnDetach(boolean)} is.</li>
+     * <li>The offset is kept while detached, so a reattached row binds and lays out only the
+     * window of pages it was showing. The outer RecyclerView prefetches
+     * {@link #setInitialPrefetchItemCount(int)} pages of it before it scrolls in.</li>
+     * </ul>
+     *
+     * @param pool the pool shared by the rows, or null to leave the nested mode
+     */
+    public void setCarouselPool(CarouselPool pool) {
+        if (mCarouselPool == pool) {
+            return;
+        }
+        if (mRecyclerView != null && mCarouselPool != null) {
+            mCarouselPool.onCarouselDetached();
+        }
+        mCarouselPool = pool;
+        mPoolSize = 0;
+        mAppliedPoolSizes.clear();
+        if (mRecyclerView != null && pool != null) {
+            attachCarouselPool();
+        }
+        requestLayout();
+    }
+
+    public CarouselPool getCarouselPool() {
+        return mCarouselPool;
+    }
+
+    /**
+     * Enables trace sections around the layout and scroll work of every
+     * ViewPagerLayoutManager, along with counters of the attached children and the offset,
+     * so they show up in systrace and Perfetto. Disabled by default, when disabled each trace
+     * point costs a single static field read. Counters are only written when they change.
+     *
+     * @param enable Whether or not to write trace sections
+     */
+    public static void setTraceEnabled(boolean enable) {
+        PagerTrace.setEnabled(enable);
+    }
+
+    public static boolean isTraceEnabled() {
+        return PagerTrace.sEnabled;
+    }
+
+    /**
+     * Starts recording per frame statistics into given stats, or stops with null. Recording
+     * costs a few {@link System#nanoTime()} calls per frame and allocates nothing.
+     * Default value is null.
+     *
+     * @param stats the stats to record into
+     * @see ScrollStats
+     */
+    public void setScrollStats(ScrollStats stats) {
+        mScrollStats = stats;
+        updateStatsTouchListener();
+    }
+
+    public ScrollStats getScrollStats() {
+        return mScrollStats;
+    }
+
+    private void updateStatsTouchListener() {
+        if (mRecyclerView == null) return;
+        mRecyclerView.removeOnItemTouchListener(mStatsTouchListener);
+        if (mScrollStats != null) {
+            mRecyclerView.addOnItemTouchListener(mStatsTouchListener);
+        }
+    }
+
+    /**
+     * Sets the number of pages beyond the visible window which are prefetched in the direction
+     * of the scroll, see {@link RecyclerView.LayoutManager#setItemPrefetchEnabled(boolean)}.
+     * Default value is 1.
+     *
+     * @param itemCount Number of pages to prefetch ahead, at least 0
+     */
+    public void setAdjacentPrefetchItemCount(int itemCount) {
+        if (itemCount < 0) {
+            throw new IllegalArgumentException("itemCount should be at least 0");
+        }
+        mAdjacentPrefetchItemCount = itemCount;
+    }
+
+    public int getAdjacentPrefetchItemCount() {
+        return mAdjacentPrefetchItemCount;
+    }
+
+    /**
+     * Sets the number of pages around the current one which are prefetched when this layout
+     * manager is used by a RecyclerView nested in another scrolling RecyclerView, in the same
+     * way as {@link LinearLayoutManager#setInitialPrefetchItemCount(int)}. Default value is 2.
+     *
+     * @param itemCount Number of pages to prefetch before the first layout, at least 0
+     */
+    public void setInitialPrefetchItemCount(int itemCount) {
+        if (itemCount < 0) {
+            throw new IllegalArgumentException("itemCount should be at least 0");
+        }
+        mInitialPrefetchItemCount = itemCount;
+    }
+
+    public int getInitialPrefetchItemCount() {
+        return mInitialPrefetchItemCount;
+    }
+
     /**
      * Returns the current state of the smooth scrollbar feature. It is enabled by default.
      *
@@ -695,9 +2670,73 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         return mSmoothScrollbarEnabled;
     }
 
+    /**
+     * LayoutParams used by {@link ViewPagerLayoutManager}, keeps the virtual position of
+     * each child and the view properties last applied to it.
+     */
+    public static class LayoutParams extends RecyclerView.LayoutParams {
+        int mVirtualPosition = NO_POSITION;
+
+        /**
+         * The view properties written by the layout manager, left and top hold the translation
+         */
+        final ItemTransform mAppliedTransform = new ItemTransform();
+
+        /**
+         * False until the view is first added and reset to identity, {@link ScrollStats}
+         * counts views fetched with it false as created
+         */
+        boolean mAppliedTransformValid;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(RecyclerView.LayoutParams source) {
+            super(source);
+        }
+    }
+
     private static class SavedState implements Parcelable {
+        /**
+         * Adapter position of the centered item
+         */
         int position;
         boolean isReverseLayout;
+        boolean infinite;
+        int itemCount;
+
+        /**
+         * The exact offset, which also keeps the virtual position in infinite mode
+         */
+        double offset;
+
+        /**
+         * Offset minus the property of the centered item
+         */
+        double fraction;
+
+        long anchorId = RecyclerView.NO_ID;
+
+        /**
+         * Measurement of the items and the space they were measured in, 0 if not measured
+         */
+        int decoratedMeasurement;
+        int decoratedMeasurementInOther;
+        int totalSpace;
+        int totalSpaceInOther;
 
         SavedState() {
 
@@ -706,11 +2745,29 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         SavedState(Parcel in) {
             position = in.readInt();
             isReverseLayout = in.readInt() == 1;
+            infinite = in.readInt() == 1;
+            itemCount = in.readInt();
+            offset = in.readDouble();
+            fraction = in.readDouble();
+            anchorId = in.readLong();
+            decoratedMeasurement = in.readInt();
+            decoratedMeasurementInOther = in.readInt();
+            totalSpace = in.readInt();
+            totalSpaceInOther = in.readInt();
         }
 
         public SavedState(SavedState other) {
             position = other.position;
             isReverseLayout = other.isReverseLayout;
+            infinite = other.infinite;
+            itemCount = other.itemCount;
+            offset = other.offset;
+            fraction = other.fraction;
+            anchorId = other.anchorId;
+            decoratedMeasurement = other.decoratedMeasurement;
+            decoratedMeasurementInOther = other.decoratedMeasurementInOther;
+            totalSpace = other.totalSpace;
+            totalSpaceInOther = other.totalSpaceInOther;
         }
 
         @Override
@@ -722,6 +2779,15 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
         public void writeToParcel(Parcel dest, int flags) {
             dest.writeInt(position);
             dest.writeInt(isReverseLayout ? 1 : 0);
+            dest.writeInt(infinite ? 1 : 0);
+            dest.writeInt(itemCount);
+            dest.writeDouble(offset);
+            dest.writeDouble(fraction);
+            dest.writeLong(anchorId);
+            dest.writeInt(decoratedMeasurement);
+            dest.writeInt(decoratedMeasurementInOther);
+            dest.writeInt(totalSpace);
+            dest.writeInt(totalSpaceInOther);
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR
@@ -743,4 +2809,25 @@ public abstract class ViewPagerLayoutManager extends RecyclerView.LayoutManager
 
         void onPageScrollStateChanged(int state);
     }
+
+    public interface OnPageScrollListener {
+        /**
+         * Works the same way as ViewPager.OnPageChangeListener#onPageScrolled.
+         *
+         * @param position             adapter position of the page at or before the current
+         *                             offset, page position + 1 is coming in
+         * @param positionOffset       how far the offset is from page position to the next
+         *                             one, in [0, 1)
+         * @param positionOffsetPixels the same distance in pixels
+         */
+        void onPageScrolled(int position, float positionOffset, int positionOffsetPixels);
+
+        /**
+         * Called when the item closest to the center changes, which happens halfway between
+         * two pages while scrolling.
+         *
+         * @param position adapter position of the centered item
+         */
+        void onCenterItemChanged(int position);
+    }
 }
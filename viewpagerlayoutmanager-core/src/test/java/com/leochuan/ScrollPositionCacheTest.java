@@ -0,0 +1,175 @@
+package com.leochuan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The hash table and the LRU list of {@link ScrollPositionCache}. Every row put in gets the
+ * offset id * 10, so lookups can check they found the right slot.
+ */
+public class ScrollPositionCacheTest {
+    private static final int MAX_SIZE = 4;
+
+    /**
+     * Ids put by {@link #assertEvictedInOrder(ScrollPositionCache, long...)} to fill the cache
+     */
+    private static final long FILLER_ID = 1000000;
+
+    @Test
+    public void collisionChainWrapsAroundTheTable() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        final long[] chain = findIds(cache, lastBucket(cache), 3);
+        final long other = findIds(cache, 0, 1)[0];
+        // the chain takes the last bucket and the first two, other is pushed to the third
+        put(cache, chain[0], chain[1], chain[2], other);
+        assertOffsets(cache, chain[0], chain[1], chain[2], other);
+
+        cache.remove(chain[0]);
+        assertFalse(cache.contains(chain[0]));
+        assertOffsets(cache, chain[1], chain[2], other);
+
+        cache.remove(chain[2]);
+        assertFalse(cache.contains(chain[2]));
+        assertOffsets(cache, chain[1], other);
+
+        put(cache, chain[0], chain[2]);
+        assertOffsets(cache, chain[1], other, chain[0], chain[2]);
+        assertEquals(MAX_SIZE, cache.size());
+    }
+
+    @Test
+    public void evictionAtCapacityDropsLeastRecentlyUsed() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4);
+        assertEquals(20, cache.get(2, Double.NaN), 0);
+        // putting an id which is already there updates it without evicting anything
+        cache.put(3, 30);
+        assertEquals(MAX_SIZE, cache.size());
+        assertEvictedInOrder(cache, 1, 4, 2, 3);
+    }
+
+    @Test
+    public void evictionReusesTheSlotOfTheEvictedRow() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4, 5, 6);
+        assertFalse(cache.contains(1));
+        assertFalse(cache.contains(2));
+        assertOffsets(cache, 3, 4, 5, 6);
+        assertEvictedInOrder(cache, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void removeHeadInLastSlot() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4);
+        cache.remove(4);
+        assertEquals(3, cache.size());
+        assertFalse(cache.contains(4));
+        assertOffsets(cache, 1, 2, 3);
+        assertEvictedInOrder(cache, 1, 2, 3);
+    }
+
+    @Test
+    public void removeHeadMovesLastSlot() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4);
+        assertEquals(10, cache.get(1, Double.NaN), 0);
+        cache.remove(1);
+        assertFalse(cache.contains(1));
+        assertOffsets(cache, 2, 3, 4);
+        assertEvictedInOrder(cache, 2, 3, 4);
+    }
+
+    @Test
+    public void removeTailMovesHeadSlot() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4);
+        cache.remove(1);
+        assertFalse(cache.contains(1));
+        assertOffsets(cache, 2, 3, 4);
+        assertEvictedInOrder(cache, 2, 3, 4);
+    }
+
+    @Test
+    public void removeMiddle() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3, 4);
+        cache.remove(2);
+        assertFalse(cache.contains(2));
+        assertOffsets(cache, 1, 3, 4);
+        assertEvictedInOrder(cache, 1, 3, 4);
+    }
+
+    @Test
+    public void removeUntilEmpty() {
+        final ScrollPositionCache cache = new ScrollPositionCache(MAX_SIZE);
+        put(cache, 1, 2, 3);
+        cache.remove(2);
+        cache.remove(5);
+        cache.remove(3);
+        cache.remove(1);
+        assertEquals(0, cache.size());
+        put(cache, 3, 2);
+        assertOffsets(cache, 3, 2);
+        assertEvictedInOrder(cache, 3, 2);
+    }
+
+    private static void put(ScrollPositionCache cache, long... ids) {
+        for (long id : ids) {
+            cache.put(id, id * 10);
+        }
+    }
+
+    /**
+     * Looks the ids up from the least recently used one on, which leaves their order as it was.
+     */
+    private static void assertOffsets(ScrollPositionCache cache, long... lruFirst) {
+        for (long id : lruFirst) {
+            assertTrue(cache.contains(id));
+            assertEquals(id * 10, cache.get(id, Double.NaN), 0);
+        }
+    }
+
+    /**
+     * Fills the cache, then puts one more row at a time and checks that the given ids are
+     * dropped in the given order while the later ones stay.
+     */
+    private static void assertEvictedInOrder(ScrollPositionCache cache, long... lruFirst) {
+        long filler = FILLER_ID;
+        while (cache.size() < cache.getMaxSize()) {
+            cache.put(filler++, 0);
+        }
+        for (int i = 0; i < lruFirst.length; i++) {
+            cache.put(filler++, 0);
+            assertFalse(cache.contains(lruFirst[i]));
+            for (int j = i + 1; j < lruFirst.length; j++) {
+                assertTrue(cache.contains(lruFirst[j]));
+            }
+        }
+    }
+
+    private static int lastBucket(ScrollPositionCache cache) {
+        int last = 0;
+        for (long id = 0; id < 10000; id++) {
+            last = Math.max(last, cache.homeBucket(id));
+        }
+        return last;
+    }
+
+    /**
+     * @return the first ids whose lookup starts from given bucket
+     */
+    private static long[] findIds(ScrollPositionCache cache, int bucket, int count) {
+        final long[] ids = new long[count];
+        int found = 0;
+        for (long id = 1; found < count; id++) {
+            if (cache.homeBucket(id) == bucket) {
+                ids[found++] = id;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of CircleLayoutManager, items are laid out on a circle and rotate with it.
+ */
+public class CircleGeometry extends PagerGeometry {
+
+    private int mRadius;
+
+    private final TrigTable mTrigTable;
+
+    public CircleGeometry() {
+        this(TrigTable.DEFAULT_RESOLUTION, true);
+    }
+
+    public CircleGeometry(int trigResolution, boolean trigInterpolation) {
+        mTrigTable = new TrigTable(trigResolution, trigInterpolation);
+    }
+
+    public int getRadius() {
+        return mRadius;
+    }
+
+    public void setRadius(int radius) {
+        mRadius = radius;
+    }
+
+    public TrigTable getTrigTable() {
+        return mTrigTable;
+    }
+
+    @Override
+    public float calMainDirection(float targetOffset) {
+        mTrigTable.update(mRadius, mInterval);
+        return mTrigTable.mainDirection(targetOffset);
+    }
+
+    @Override
+    public float calOtherDirection(float targetOffset) {
+        mTrigTable.update(mRadius, mInterval);
+        return mTrigTable.otherDirection(targetOffset);
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        out.rotation = targetOffset;
+    }
+
+    @Override
+    public float calOrderWeight(float targetOffset) {
+        return 360 - Math.abs(targetOffset);
+    }
+}
@@ -0,0 +1,41 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of CircleScaleLayoutManager, items are laid out on a circle and the one
+ * closest to the top is scaled up.
+ */
+public class CircleScaleGeometry extends CircleGeometry {
+
+    private float mScaleRate;
+
+    public CircleScaleGeometry(float scaleRate) {
+        mScaleRate = scaleRate;
+    }
+
+    public float getScaleRate() {
+        return mScaleRate;
+    }
+
+    public void setScaleRate(float scaleRate) {
+        mScaleRate = scaleRate;
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        final float scale = calculateScale(targetOffset);
+        out.rotation = targetOffset;
+        out.scaleX = scale;
+        out.scaleY = scale;
+    }
+
+    @Override
+    public float calOrderWeight(float targetOffset) {
+        return calculateScale(targetOffset);
+    }
+
+    private float calculateScale(float targetOffset) {
+        if (targetOffset >= mInterval || targetOffset <= -mInterval) return 1f;
+        float diff = Math.abs(Math.abs(targetOffset - mInterval) - mInterval);
+        return (mScaleRate - 1f) / -mInterval * diff + mScaleRate;
+    }
+}
@@ -0,0 +1,67 @@
+package com.leochuan.geometry;
+
+/**
+ * Keeps the order in which children should be drawn, from the lowest stacking weight to the
+ * highest.
+ * <p>
+ * Weights are set per child index of the parent which draws the children, and sorted with an
+ * insertion sort, which is cheaper than a general purpose sort for the handful of children a
+ * pager keeps attached. Children with the same weight keep their index order. No allocation
+ * happens unless the number of children grows.
+ */
+public final class DrawingOrder {
+    private float[] mWeights = new float[0];
+    private int[] mOrder = new int[0];
+    private int mCount;
+
+    /**
+     * Starts a new frame with given children count, weights have to be set for every index
+     * before {@link #sort()} is called.
+     */
+    public void reset(int count) {
+        if (mWeights.length < count) {
+            final int capacity = Math.max(count, mWeights.length * 2);
+            mWeights = new float[capacity];
+            mOrder = new int[capacity];
+        }
+        mCount = count;
+    }
+
+    public void setWeight(int index, float weight) {
+        mWeights[index] = weight;
+    }
+
+    public void sort() {
+        final float[] weights = mWeights;
+        final int[] order = mOrder;
+        for (int i = 0; i < mCount; i++) {
+            order[i] = i;
+        }
+        for (int i = 1; i < mCount; i++) {
+            final int index = order[i];
+            final float weight = weights[index];
+            int j = i - 1;
+            while (j >= 0 && weights[order[j]] > weight) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param i the drawing iteration
+     * @return the index of the child to draw at the given iteration, or i itself if the
+     * children count does not match the last sorted frame
+     */
+    public int getChildIndex(int childCount, int i) {
+        if (childCount != mCount || i >= mCount) {
+            return i;
+        }
+        return mOrder[i];
+    }
+}
@@ -0,0 +1,50 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of ElevateScaleLayoutManager, items shrink and sink while moving away from center.
+ */
+public class ElevateScaleGeometry extends PagerGeometry {
+
+    private float mMinScale;
+
+    public ElevateScaleGeometry(float minScale) {
+        mMinScale = minScale;
+    }
+
+    public float getMinScale() {
+        return mMinScale;
+    }
+
+    public void setMinScale(float minScale) {
+        mMinScale = minScale;
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        final float scale = calculateScale((int) targetOffset + mSpaceMain);
+        out.scaleX = scale;
+        out.scaleY = scale;
+    }
+
+    @Override
+    public float calOrderWeight(float targetOffset) {
+        return calculateWeight((int) targetOffset + mSpaceMain);
+    }
+
+    /**
+     * @param x start positon of the view you want scale
+     * @return the scale rate of current scroll mOffset
+     */
+    private float calculateScale(int x) {
+        float deltaX = Math.abs(x - (mTotalSpace - mDecoratedMeasurement) / 2f);
+        return -mMinScale * deltaX / (mTotalSpace / 2f) + 1f;
+    }
+
+    /**
+     * The closer to center the higher the item is stacked. Weights are compared as floats so
+     * keep them small, values around Integer.MAX_VALUE all round to the same float.
+     */
+    private int calculateWeight(int x) {
+        return -(int) Math.abs(x - (mTotalSpace - mDecoratedMeasurement) / 2f);
+    }
+}
@@ -0,0 +1,49 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of GalleryLayoutManager, items turn around y axis and fade while moving away
+ * from center.
+ */
+public class GalleryGeometry extends PagerGeometry {
+
+    private float mAngle;
+
+    private float mMinAlpha;
+
+    public GalleryGeometry(float angle, float minAlpha) {
+        mAngle = angle;
+        mMinAlpha = minAlpha;
+    }
+
+    public float getAngle() {
+        return mAngle;
+    }
+
+    public void setAngle(float angle) {
+        mAngle = angle;
+    }
+
+    public float getMinAlpha() {
+        return mMinAlpha;
+    }
+
+    public void setMinAlpha(float minAlpha) {
+        mMinAlpha = minAlpha;
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        out.rotationY = calRotationY(targetOffset);
+        out.alpha = calAlpha(targetOffset);
+    }
+
+    private float calRotationY(float targetOffset) {
+        return -mAngle / mInterval * targetOffset;
+    }
+
+    private float calAlpha(float targetOffset) {
+        float alpha = (mMinAlpha - 1f) / mInterval * Math.abs(targetOffset) + 1f;
+        if (alpha < mMinAlpha) alpha = mMinAlpha;
+        return alpha;
+    }
+}
@@ -0,0 +1,56 @@
+package com.leochuan.geometry;
+
+/**
+ * The transform of a single item computed by {@link PagerGeometry}.
+ * <p>
+ * {@link #left} and {@link #top} are the position of the item inside its parent, the other
+ * fields map one to one to the view properties with the same name. {@link #z} is the stacking
+ * weight of the item, a bigger value means the item should be drawn above the others.
+ */
+public final class ItemTransform {
+    public float left;
+    public float top;
+    public float scaleX;
+    public float scaleY;
+    public float rotation;
+    public float rotationX;
+    public float rotationY;
+    public float alpha;
+    public float z;
+
+    public ItemTransform() {
+        reset();
+    }
+
+    /**
+     * Resets all properties except the position to their identity value.
+     */
+    public void reset() {
+        scaleX = 1f;
+        scaleY = 1f;
+        rotation = 0;
+        rotationX = 0;
+        rotationY = 0;
+        alpha = 1f;
+        z = 0;
+    }
+
+    public void set(ItemTransform other) {
+        left = other.left;
+        top = other.top;
+        scaleX = other.scaleX;
+        scaleY = other.scaleY;
+        rotation = other.rotation;
+        rotationX = other.rotationX;
+        rotationY = other.rotationY;
+        alpha = other.alpha;
+        z = other.z;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemTransform{left=" + left + ", top=" + top + ", scaleX=" + scaleX
+                + ", scaleY=" + scaleY + ", rotation=" + rotation + ", rotationX=" + rotationX
+                + ", rotationY=" + rotationY + ", alpha=" + alpha + ", z=" + z + "}";
+    }
+}
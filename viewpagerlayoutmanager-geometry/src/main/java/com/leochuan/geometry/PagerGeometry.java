@@ -0,0 +1,439 @@
+package com.leochuan.geometry;
+
+/**
+ * The offset math behind ViewPagerLayoutManager without any dependency on Android.
+ * <p>
+ * Every item has a property which is its position multiplied by {@link #getInterval()}.
+ * Subtracting the current scroll offset from it gives the target offset of the item, which
+ * is then mapped to a position and the other view properties by the {@code cal*} methods.
+ * Subclasses override those to describe their own effect.
+ * <p>
+ * Properties and scroll offsets are doubles, while target offsets are floats. A float
+ * snaps to whole pixels once the offset grows past 2^24, which a pager of 100k items reaches
+ * easily. Target offsets are the difference between two values which are close to each
+ * other, so they stay small.
+ * <p>
+ * The layout manager owning this object pushes its config in through the setters before
+ * every layout pass, so the same instance can also be used to query item transforms
+ * without a layout pass.
+ * <p>
+ * When a {@link SizeIndex} is set, items may differ in size. The distance between two adjacent
+ * items then grows by the average of their size differences from the reference measurement,
+ * converted to offset by the size scale, and every item is centered on its own measurement.
+ */
+@SuppressWarnings("WeakerAccess")
+public class PagerGeometry {
+
+    public static final int HORIZONTAL = 0;
+
+    public static final int VERTICAL = 1;
+
+    protected int mOrientation = HORIZONTAL;
+
+    protected boolean mReverseLayout;
+
+    protected boolean mInfinite;
+
+    protected int mItemCount;
+
+    /**
+     * The offset between two adjacent items
+     */
+    protected float mInterval;
+
+    protected float mMinRemoveOffset;
+
+    protected float mMaxRemoveOffset;
+
+    protected int mSpaceMain;
+
+    protected int mSpaceInOther;
+
+    protected int mDecoratedMeasurement;
+
+    protected int mDecoratedMeasurementInOther;
+
+    /**
+     * Total space of the parent in the main direction without padding
+     */
+    protected int mTotalSpace;
+
+    /**
+     * Measurements of items with different sizes, null if all items share
+     * {@link #mDecoratedMeasurement}
+     */
+    protected SizeIndex mSizeIndex;
+
+    /**
+     * The offset of one pixel of size difference
+     */
+    protected float mSizeScale = 1f;
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    public void setOrientation(int orientation) {
+        if (orientation != HORIZONTAL && orientation != VERTICAL) {
+            throw new IllegalArgumentException("invalid orientation:" + orientation);
+        }
+        mOrientation = orientation;
+    }
+
+    public boolean getReverseLayout() {
+        return mReverseLayout;
+    }
+
+    public void setReverseLayout(boolean reverseLayout) {
+        mReverseLayout = reverseLayout;
+    }
+
+    public boolean getInfinite() {
+        return mInfinite;
+    }
+
+    public void setInfinite(boolean infinite) {
+        mInfinite = infinite;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        mItemCount = itemCount;
+    }
+
+    public float getInterval() {
+        return mInterval;
+    }
+
+    public void setInterval(float interval) {
+        mInterval = interval;
+    }
+
+    public float getMinRemoveOffset() {
+        return mMinRemoveOffset;
+    }
+
+    public float getMaxRemoveOffset() {
+        return mMaxRemoveOffset;
+    }
+
+    /**
+     * Items whose target offset is out of [min, max] are not laid out
+     */
+    public void setRemoveOffset(float min, float max) {
+        mMinRemoveOffset = min;
+        mMaxRemoveOffset = max;
+    }
+
+    public int getSpaceMain() {
+        return mSpaceMain;
+    }
+
+    public int getSpaceInOther() {
+        return mSpaceInOther;
+    }
+
+    public void setSpace(int spaceMain, int spaceInOther) {
+        mSpaceMain = spaceMain;
+        mSpaceInOther = spaceInOther;
+    }
+
+    public int getDecoratedMeasurement() {
+        return mDecoratedMeasurement;
+    }
+
+    public int getDecoratedMeasurementInOther() {
+        return mDecoratedMeasurementInOther;
+    }
+
+    public void setDecoratedMeasurement(int measurement, int measurementInOther) {
+        mDecoratedMeasurement = measurement;
+        mDecoratedMeasurementInOther = measurementInOther;
+    }
+
+    public int getTotalSpace() {
+        return mTotalSpace;
+    }
+
+    public void setTotalSpace(int totalSpace) {
+        mTotalSpace = totalSpace;
+    }
+
+    public SizeIndex getSizeIndex() {
+        return mSizeIndex;
+    }
+
+    /**
+     * @param sizeIndex measurements of every position, or null if all items have the same size
+     * @param sizeScale the offset of one pixel of size difference, usually the inverse of the
+     *                  distance ratio of the layout manager
+     */
+    public void setSizeIndex(SizeIndex sizeIndex, float sizeScale) {
+        mSizeIndex = sizeIndex;
+        mSizeScale = sizeScale;
+    }
+
+    /**
+     * @return the property of the item at given position, which equals its target offset
+     * when the scroll offset is 0
+     */
+    public double getProperty(int position) {
+        if (mSizeIndex != null) {
+            final double property = getVariableProperty(position);
+            return !mReverseLayout ? property : -property;
+        }
+        return !mReverseLayout ? position * (double) mInterval : position * -(double) mInterval;
+    }
+
+    /**
+     * @return the target offset of the item at given position with given scroll offset
+     */
+    public float getTargetOffset(int position, double offset) {
+        return (float) (getProperty(position) - offset);
+    }
+
+    public boolean removeCondition(float targetOffset) {
+        return targetOffset > mMaxRemoveOffset || targetOffset < mMinRemoveOffset;
+    }
+
+    public double getMaxOffset() {
+        if (mSizeIndex != null) {
+            return !mReverseLayout ?
+                    getVariableProperty(mInfinite ? (mItemCount + 1) : (mItemCount - 1)) : 0;
+        }
+        return !mReverseLayout ?
+                (mInfinite ? (mItemCount + 1) : (mItemCount - 1)) * (double) mInterval : 0;
+    }
+
+    public double getMinOffset() {
+        if (mSizeIndex != null) {
+            return !mReverseLayout ?
+                    0 : -getVariableProperty(mInfinite ? (mItemCount + 1) : (mItemCount - 1));
+        }
+        return !mReverseLayout ?
+                0 : -(mInfinite ? (mItemCount + 1) : (mItemCount - 1)) * (double) mInterval;
+    }
+
+    /**
+     * @return the position of the item closest to the center with given scroll offset, may be
+     * out of the adapter range in infinite mode
+     */
+    public int getCurrentPositionInternal(double offset) {
+        if (mSizeIndex != null) {
+            return getVariablePosition(Math.abs(offset));
+        }
+        return (int) Math.round(Math.abs(offset) / mInterval);
+    }
+
+    /**
+     * Unlike {@link #getCurrentPositionInternal(double)}, this keeps the sign of the offset, so
+     * offsets before the first item map to negative positions.
+     *
+     * @return the position of the item closest to the center with given scroll offset
+     */
+    public int getNearestPosition(double offset) {
+        final double unsigned = !mReverseLayout ? offset : -offset;
+        if (mSizeIndex != null) {
+            return getVariablePosition(unsigned);
+        }
+        return (int) Math.round(unsigned / mInterval);
+    }
+
+    /**
+     * @return the first position (inclusive) which may need to be laid out with given offset
+     */
+    public int getLayoutStart(double offset) {
+        if (mSizeIndex != null) {
+            final double bound = !mReverseLayout ?
+                    offset + mMinRemoveOffset : -(offset + mMaxRemoveOffset);
+            int start = getVariablePosition(bound) - 1;
+            if (start < 0 && !mInfinite) start = 0;
+            return start;
+        }
+        final int currentPos = getCurrentPositionInternal(offset);
+        final double curOffset = getProperty(currentPos) - offset;
+        int start = (int) (currentPos - Math.abs(((curOffset - mMinRemoveOffset) / mInterval))) - 1;
+        if (start < 0 && !mInfinite) start = 0;
+        return start;
+    }
+
+    /**
+     * @return the last position (exclusive) which may need to be laid out with given offset
+     */
+    public int getLayoutEnd(double offset) {
+        if (mSizeIndex != null) {
+            final double bound = !mReverseLayout ?
+                    offset + mMaxRemoveOffset : -(offset + mMinRemoveOffset);
+            int end = getVariablePosition(bound) + 2;
+            if (end > mItemCount && !mInfinite) end = mItemCount;
+            return end;
+        }
+        final int currentPos = getCurrentPositionInternal(offset);
+        final double curOffset = getProperty(currentPos) - offset;
+        int end = (int) (currentPos + Math.abs(((curOffset - mMaxRemoveOffset) / mInterval))) + 1;
+        if (end > mItemCount && !mInfinite) end = mItemCount;
+        return end;
+    }
+
+    /**
+     * @return the largest number of items which can be between the two remove offsets at the
+     * same time, whatever the scroll offset is
+     */
+    public int getMaxVisibleCount() {
+        double spacing = Math.abs(mInterval);
+        if (mSizeIndex != null) {
+            // two adjacent items are never closer than the smallest item allows
+            spacing += mSizeIndex.getMinDelta() * mSizeScale;
+        }
+        final double range = mMaxRemoveOffset - mMinRemoveOffset;
+        if (range < 0) return 0;
+        if (spacing <= 0) return mInfinite ? Integer.MAX_VALUE : mItemCount;
+        final double count = Math.floor(range / spacing) + 1;
+        if (!mInfinite && count > mItemCount) return mItemCount;
+        return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+    }
+
+    /**
+     * Maps a position which may be out of the adapter range in infinite mode back to
+     * the adapter position.
+     */
+    public int getAdapterPosition(int position) {
+        if (position >= mItemCount) {
+            return position % mItemCount;
+        } else if (position < 0) {
+            int delta = (-position) % mItemCount;
+            if (delta == 0) delta = mItemCount;
+            return mItemCount - delta;
+        }
+        return position;
+    }
+
+    /**
+     * @see #getItemTransformAt(int, double, ItemTransform)
+     */
+    public ItemTransform getItemTransformAt(int position, double offset) {
+        final ItemTransform transform = new ItemTransform();
+        getItemTransformAt(position, offset, transform);
+        return transform;
+    }
+
+    /**
+     * Computes where the item at given position will be and how it looks like when
+     * the pager is scrolled to given offset.
+     *
+     * @param position position of the item, may be out of the adapter range in infinite mode
+     * @param offset   the scroll offset
+     * @param out      the transform to fill
+     */
+    public void getItemTransformAt(int position, double offset, ItemTransform out) {
+        getItemTransform(getTargetOffset(position, offset), out);
+        if (mSizeIndex != null) {
+            final int adapterPosition = getAdapterPosition(position);
+            final float deltaMain = mSizeIndex.getDelta(adapterPosition) / 2f;
+            final float deltaInOther = (mSizeIndex.getMeasurementInOther(adapterPosition)
+                    - mSizeIndex.getReferenceInOther()) / 2f;
+            if (mOrientation == VERTICAL) {
+                out.left -= deltaInOther;
+                out.top -= deltaMain;
+            } else {
+                out.left -= deltaMain;
+                out.top -= deltaInOther;
+            }
+        }
+    }
+
+    /**
+     * Fills the transform of an item with given target offset.
+     */
+    public void getItemTransform(float targetOffset, ItemTransform out) {
+        final float main = calMainDirection(targetOffset);
+        final float other = calOtherDirection(targetOffset);
+        if (mOrientation == VERTICAL) {
+            out.left = mSpaceInOther + main;
+            out.top = mSpaceMain + other;
+        } else {
+            out.left = mSpaceMain + main;
+            out.top = mSpaceInOther + other;
+        }
+        out.reset();
+        calItemProperty(targetOffset, out);
+        out.z = calOrderWeight(targetOffset);
+    }
+
+    /**
+     * @return the unsigned property of given position when items differ in size, positions out
+     * of the adapter range continue from the previous or the next cycle
+     */
+    private double getVariableProperty(int position) {
+        final int count = mItemCount;
+        if (count == 0) return 0;
+        final int cycle = position >= 0 ? position / count : -((-position - 1) / count) - 1;
+        final int index = position - cycle * count;
+        final SizeIndex sizeIndex = mSizeIndex;
+        return cycle * getCycleLength() + index * (double) mInterval
+                + (sizeIndex.getPrefixDelta(index)
+                + (sizeIndex.getDelta(index) - sizeIndex.getDelta(0)) / 2.0) * mSizeScale;
+    }
+
+    /**
+     * @return the unsigned property from a position to the same position of the next cycle
+     */
+    private double getCycleLength() {
+        return mItemCount * (double) mInterval + mSizeIndex.getTotalDelta() * (double) mSizeScale;
+    }
+
+    /**
+     * @return the position whose unsigned property is closest to given value
+     */
+    private int getVariablePosition(double value) {
+        final int count = mItemCount;
+        if (count == 0) return 0;
+        final double cycleLength = getCycleLength();
+        if (cycleLength <= 0) return 0;
+        final int cycle = (int) Math.floor(value / cycleLength);
+        // the index only knows the sum of the size differences before each position, shifting
+        // by half of the first one lands the search on the item or one of its neighbours
+        final double shift = mSizeIndex.getDelta(0) * (double) mSizeScale / 2;
+        int position = cycle * count + mSizeIndex.floorPosition(
+                value - cycle * cycleLength + shift, mInterval, mSizeScale);
+        // walk to the closest item, ties are rounded up like Math.round does for items of
+        // the same size
+        double distance = Math.abs(getVariableProperty(position) - value);
+        double next;
+        while ((next = Math.abs(getVariableProperty(position + 1) - value)) <= distance) {
+            position++;
+            distance = next;
+        }
+        while ((next = Math.abs(getVariableProperty(position - 1) - value)) < distance) {
+            position--;
+            distance = next;
+        }
+        return position;
+    }
+
+    public float calMainDirection(float targetOffset) {
+        return mOrientation == VERTICAL ? 0 : targetOffset;
+    }
+
+    public float calOtherDirection(float targetOffset) {
+        return mOrientation == VERTICAL ? targetOffset : 0;
+    }
+
+    /**
+     * Fills the view properties of an item with given target offset. The transform passed in
+     * is already reset to identity, override this to set up your own effect.
+     */
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+    }
+
+    /**
+     * @return the stacking weight of an item with given target offset, used when the center
+     * item is brought to front
+     */
+    public float calOrderWeight(float targetOffset) {
+        return 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of RotateLayoutManager, items rotate while scrolling.
+ */
+public class RotateGeometry extends PagerGeometry {
+
+    private float mAngle;
+
+    public RotateGeometry(float angle) {
+        mAngle = angle;
+    }
+
+    public float getAngle() {
+        return mAngle;
+    }
+
+    public void setAngle(float angle) {
+        mAngle = angle;
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        out.rotation = calRotation(targetOffset);
+    }
+
+    private float calRotation(float targetOffset) {
+        return -mAngle / mInterval * targetOffset;
+    }
+}
@@ -0,0 +1,39 @@
+package com.leochuan.geometry;
+
+/**
+ * Geometry of ScaleLayoutManager, the item in center is scaled up.
+ */
+public class ScaleGeometry extends PagerGeometry {
+
+    private float mScaleRate;
+
+    public ScaleGeometry(float scaleRate) {
+        mScaleRate = scaleRate;
+    }
+
+    public float getScaleRate() {
+        return mScaleRate;
+    }
+
+    public void setScaleRate(float scaleRate) {
+        mScaleRate = scaleRate;
+    }
+
+    @Override
+    public void calItemProperty(float targetOffset, ItemTransform out) {
+        final float scale = calculateScale((int) targetOffset + mSpaceMain);
+        out.scaleX = scale;
+        out.scaleY = scale;
+    }
+
+    /**
+     * @param x start positon of the view you want scale
+     * @return the scale rate of current scroll mOffset
+     */
+    private float calculateScale(int x) {
+        int deltaX = Math.abs(x - (mTotalSpace - mDecoratedMeasurement) / 2);
+        float diff = 0f;
+        if ((mDecoratedMeasurement - deltaX) > 0) diff = mDecoratedMeasurement - deltaX;
+        return (mScaleRate - 1f) / mDecoratedMeasurement * diff + 1;
+    }
+}
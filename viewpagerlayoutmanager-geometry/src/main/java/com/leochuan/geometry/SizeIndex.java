@@ -0,0 +1,308 @@
+package com.leochuan.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Caches the measurement of every adapter position for pagers whose items differ in size.
+ * <p>
+ * Measurements are kept in primitive arrays. The difference between each measurement and the
+ * reference measurement is also kept in a Fenwick tree, so the sum of the differences before
+ * any position, and the position at a given offset, are both found in O(log n). Positions
+ * which have not been measured yet are assumed to have the reference measurement.
+ * <p>
+ * Adapter updates move the measurements along with their items. They leave the tree stale,
+ * it is built again in O(n) by the next query, so a batch of updates costs a single rebuild.
+ */
+public final class SizeIndex {
+    private int mCount;
+    private int mReference;
+    private int mReferenceInOther;
+
+    private int[] mMeasurements = new int[0];
+    private int[] mMeasurementsInOther = new int[0];
+
+    /**
+     * Fenwick tree over measurement - reference, 1-based
+     */
+    private long[] mTree = new long[1];
+
+    private long mTotalDelta;
+
+    /**
+     * Smallest {@link #getDelta(int)} ever set since the cache was last cleared or rebuilt,
+     * never above 0
+     */
+    private int mMinDelta;
+
+    /**
+     * Highest power of two which is not greater than {@link #mCount}
+     */
+    private int mTopBit;
+
+    /**
+     * True when positions were inserted, removed or moved since {@link #mTree},
+     * {@link #mTotalDelta}, {@link #mMinDelta} and {@link #mTopBit} were last built
+     */
+    private boolean mTreeStale;
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getReference() {
+        return mReference;
+    }
+
+    public int getReferenceInOther() {
+        return mReferenceInOther;
+    }
+
+    /**
+     * Drops every cached measurement if the reference measurement changed. A change of the
+     * item count alone only adds or drops positions at the end, adapter updates should be
+     * followed through {@link #insert(int, int)}, {@link #remove(int, int)} and
+     * {@link #move(int, int, int)} first so that the measurements stay at their items.
+     *
+     * @return true if the cache was dropped
+     */
+    public boolean reset(int count, int reference, int referenceInOther) {
+        if (reference != mReference || referenceInOther != mReferenceInOther) {
+            mCount = count;
+            mReference = reference;
+            mReferenceInOther = referenceInOther;
+            clear();
+            return true;
+        }
+        if (count != mCount) {
+            ensureCapacity(count);
+            if (count > mCount) {
+                Arrays.fill(mMeasurements, mCount, count, mReference);
+                Arrays.fill(mMeasurementsInOther, mCount, count, mReferenceInOther);
+            }
+            mCount = count;
+            mTreeStale = true;
+        }
+        return false;
+    }
+
+    /**
+     * Inserts given number of positions with the reference measurement before given position,
+     * the positions after it keep their measurement. Moves O(n) measurements, the tree is
+     * rebuilt in O(n) by the next query.
+     */
+    public void insert(int position, int count) {
+        if (position < 0 || position > mCount || count < 0) {
+            throw new IndexOutOfBoundsException("insert " + count + " at " + position
+                    + ", count " + mCount);
+        }
+        ensureCapacity(mCount + count);
+        System.arraycopy(mMeasurements, position, mMeasurements, position + count, mCount - position);
+        System.arraycopy(mMeasurementsInOther, position, mMeasurementsInOther, position + count,
+                mCount - position);
+        Arrays.fill(mMeasurements, position, position + count, mReference);
+        Arrays.fill(mMeasurementsInOther, position, position + count, mReferenceInOther);
+        mCount += count;
+        mTreeStale = true;
+    }
+
+    /**
+     * Removes given number of positions from given position on, the positions after them keep
+     * their measurement. Moves O(n) measurements, the tree is rebuilt in O(n) by the next
+     * query.
+     */
+    public void remove(int position, int count) {
+        if (position < 0 || count < 0 || position + count > mCount) {
+            throw new IndexOutOfBoundsException("remove " + count + " at " + position
+                    + ", count " + mCount);
+        }
+        final int tail = mCount - position - count;
+        System.arraycopy(mMeasurements, position + count, mMeasurements, position, tail);
+        System.arraycopy(mMeasurementsInOther, position + count, mMeasurementsInOther, position, tail);
+        mCount -= count;
+        mTreeStale = true;
+    }
+
+    /**
+     * Moves given number of positions from given position to given target, which is counted
+     * as if the moved positions had already been removed, like RecyclerView does. Moves
+     * O(|from - to| + count) measurements, the tree is rebuilt in O(n) by the next query.
+     */
+    public void move(int from, int to, int count) {
+        if (from < 0 || to < 0 || count < 0 || from + count > mCount || to + count > mCount) {
+            throw new IndexOutOfBoundsException("move " + count + " from " + from + " to " + to
+                    + ", count " + mCount);
+        }
+        if (from == to || count == 0) {
+            return;
+        }
+        if (from < to) {
+            rotate(mMeasurements, from, to + count, count);
+            rotate(mMeasurementsInOther, from, to + count, count);
+        } else {
+            rotate(mMeasurements, to, from + count, from - to);
+            rotate(mMeasurementsInOther, to, from + count, from - to);
+        }
+        mTreeStale = true;
+    }
+
+    /**
+     * Forgets every measurement, all positions go back to the reference measurement.
+     */
+    public void clear() {
+        final int count = mCount;
+        if (mMeasurements.length < count) {
+            mMeasurements = new int[count];
+            mMeasurementsInOther = new int[count];
+            mTree = new long[count + 1];
+        } else {
+            Arrays.fill(mTree, 0, count + 1, 0);
+        }
+        Arrays.fill(mMeasurements, 0, count, mReference);
+        Arrays.fill(mMeasurementsInOther, 0, count, mReferenceInOther);
+        mTotalDelta = 0;
+        mMinDelta = 0;
+        mTopBit = count == 0 ? 0 : Integer.highestOneBit(count);
+        mTreeStale = false;
+    }
+
+    /**
+     * @return true if the measurement in the main direction changed, which moves every
+     * position after the given one
+     */
+    public boolean set(int position, int measurement, int measurementInOther) {
+        mMeasurementsInOther[position] = measurementInOther;
+        final int delta = measurement - mMeasurements[position];
+        if (delta == 0) {
+            return false;
+        }
+        mMeasurements[position] = measurement;
+        if (mTreeStale) {
+            // the rebuild picks the measurement up
+            return true;
+        }
+        mTotalDelta += delta;
+        if (measurement - mReference < mMinDelta) mMinDelta = measurement - mReference;
+        final long[] tree = mTree;
+        for (int i = position + 1; i <= mCount; i += i & -i) {
+            tree[i] += delta;
+        }
+        return true;
+    }
+
+    public int getMeasurement(int position) {
+        return mMeasurements[position];
+    }
+
+    public int getMeasurementInOther(int position) {
+        return mMeasurementsInOther[position];
+    }
+
+    /**
+     * @return measurement - reference of given position
+     */
+    public int getDelta(int position) {
+        return mMeasurements[position] - mReference;
+    }
+
+    /**
+     * @return the sum of {@link #getDelta(int)} over [0, position)
+     */
+    public long getPrefixDelta(int position) {
+        if (mTreeStale) rebuild();
+        long sum = 0;
+        final long[] tree = mTree;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public long getTotalDelta() {
+        if (mTreeStale) rebuild();
+        return mTotalDelta;
+    }
+
+    /**
+     * @return a lower bound of {@link #getDelta(int)} over every position, it is not raised
+     * again when the smallest measurement grows
+     */
+    public int getMinDelta() {
+        if (mTreeStale) rebuild();
+        return mMinDelta;
+    }
+
+    /**
+     * Finds the last position p in [0, count] with
+     * {@code p * interval + getPrefixDelta(p) * scale <= value}, which requires
+     * {@code interval + getDelta(p) * scale} to be non-negative for every position.
+     *
+     * @return 0 if even position 0 is after value
+     */
+    public int floorPosition(double value, double interval, double scale) {
+        if (mTreeStale) rebuild();
+        int position = 0;
+        double acc = 0;
+        final long[] tree = mTree;
+        for (int bit = mTopBit; bit != 0; bit >>= 1) {
+            final int next = position + bit;
+            if (next > mCount) continue;
+            final double candidate = acc + bit * interval + tree[next] * scale;
+            if (candidate <= value) {
+                position = next;
+                acc = candidate;
+            }
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int count) {
+        if (mMeasurements.length >= count) {
+            return;
+        }
+        final int capacity = Math.max(count, mMeasurements.length + (mMeasurements.length >> 1));
+        mMeasurements = Arrays.copyOf(mMeasurements, capacity);
+        mMeasurementsInOther = Arrays.copyOf(mMeasurementsInOther, capacity);
+        mTree = new long[capacity + 1];
+    }
+
+    /**
+     * Builds the Fenwick tree and the totals again from the measurements in O(count).
+     */
+    private void rebuild() {
+        final int count = mCount;
+        final long[] tree = mTree;
+        long totalDelta = 0;
+        int minDelta = 0;
+        for (int i = 1; i <= count; i++) {
+            final int delta = mMeasurements[i - 1] - mReference;
+            tree[i] = delta;
+            totalDelta += delta;
+            if (delta < minDelta) minDelta = delta;
+        }
+        for (int i = 1; i <= count; i++) {
+            final int parent = i + (i & -i);
+            if (parent <= count) tree[parent] += tree[i];
+        }
+        mTotalDelta = totalDelta;
+        mMinDelta = minDelta;
+        mTopBit = count == 0 ? 0 : Integer.highestOneBit(count);
+        mTreeStale = false;
+    }
+
+    /**
+     * Rotates [start, end) of given array left by given distance.
+     */
+    private static void rotate(int[] array, int start, int end, int distance) {
+        reverse(array, start, start + distance);
+        reverse(array, start + distance, end);
+        reverse(array, start, end);
+    }
+
+    private static void reverse(int[] array, int start, int end) {
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            final int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
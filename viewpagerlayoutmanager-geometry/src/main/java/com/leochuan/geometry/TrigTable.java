@@ -0,0 +1,138 @@
+package com.leochuan.geometry;
+
+/**
+ * A precomputed sine/cosine table used by the circle layout managers.
+ * <p>
+ * The values are sampled over a full circle and already scaled by the radius, so one lookup
+ * replaces {@link Math#toRadians(double)}, {@link Math#cos(double)} and {@link Math#sin(double)}
+ * for every attached child on every frame. The step between two samples is
+ * {@code angleInterval / resolution} degrees and the table is only rebuilt when the radius or
+ * the angle interval changes.
+ */
+public final class TrigTable {
+    /**
+     * Default samples taken between two adjacent items
+     */
+    public static final int DEFAULT_RESOLUTION = 32;
+
+    private int resolution;
+    private boolean interpolate;
+
+    private int radius = Integer.MIN_VALUE;
+    private float angleInterval = Float.NaN;
+
+    private float step;
+    private float stepInverse;
+    private int size;
+
+    /**
+     * radius * sin(angle), which equals radius * cos(90 - angle)
+     */
+    private float[] mainDirection;
+
+    /**
+     * radius - radius * cos(angle), which equals radius - radius * sin(90 - angle)
+     */
+    private float[] otherDirection;
+
+    public TrigTable() {
+        this(DEFAULT_RESOLUTION, true);
+    }
+
+    public TrigTable(int resolution, boolean interpolate) {
+        setResolution(resolution);
+        this.interpolate = interpolate;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param resolution samples taken between two adjacent items, must be positive
+     */
+    public void setResolution(int resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("resolution must be positive:" + resolution);
+        }
+        if (this.resolution == resolution) return;
+        this.resolution = resolution;
+        invalidate();
+    }
+
+    public boolean getInterpolate() {
+        return interpolate;
+    }
+
+    /**
+     * @param interpolate true to linearly interpolate between two samples, false to pick the
+     *                    nearest one
+     */
+    public void setInterpolate(boolean interpolate) {
+        this.interpolate = interpolate;
+    }
+
+    /**
+     * Forces the next {@link #update(int, float)} to rebuild the table.
+     */
+    public void invalidate() {
+        radius = Integer.MIN_VALUE;
+        angleInterval = Float.NaN;
+    }
+
+    /**
+     * Rebuilds the table if radius or angle interval has changed since the last call.
+     *
+     * @return true if the table was rebuilt
+     */
+    public boolean update(int radius, float angleInterval) {
+        if (this.radius == radius && this.angleInterval == angleInterval) {
+            return false;
+        }
+        this.radius = radius;
+        this.angleInterval = angleInterval;
+
+        // keep the step a divisor of 360 so the table wraps around without a seam
+        final float wantedStep = Math.abs(angleInterval) / resolution;
+        size = wantedStep > 0 ? Math.max(4, (int) Math.ceil(360 / wantedStep)) : 360 * resolution;
+        step = 360f / size;
+        stepInverse = size / 360f;
+
+        if (mainDirection == null || mainDirection.length != size + 1) {
+            mainDirection = new float[size + 1];
+            otherDirection = new float[size + 1];
+        }
+        for (int i = 0; i <= size; i++) {
+            final double radians = Math.toRadians(i * step);
+            mainDirection[i] = (float) (radius * Math.sin(radians));
+            otherDirection[i] = (float) (radius - radius * Math.cos(radians));
+        }
+        return true;
+    }
+
+    /**
+     * @return radius * cos(90 - angle)
+     */
+    public float mainDirection(float angle) {
+        return lookUp(mainDirection, angle);
+    }
+
+    /**
+     * @return radius - radius * sin(90 - angle)
+     */
+    public float otherDirection(float angle) {
+        return lookUp(otherDirection, angle);
+    }
+
+    private float lookUp(float[] table, float angle) {
+        float index = angle * stepInverse % size;
+        if (index < 0) index += size;
+        if (index >= size) index = 0;
+        final int i = (int) index;
+        if (!interpolate) {
+            return table[index - i < 0.5f ? i : i + 1];
+        }
+        final float fraction = index - i;
+        return table[i] + (table[i + 1] - table[i]) * fraction;
+    }
+}
@@ -0,0 +1,154 @@
+package com.leochuan.geometry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Adapter updates on a pager scrolled deep into a list of items measured bigger than the
+ * reference, the way ViewPagerLayoutManager follows them: the index is shifted first, then
+ * reset with the new item count.
+ */
+public class SizeIndexTest {
+    private static final int COUNT = 100;
+    private static final int REFERENCE = 600;
+    private static final int REFERENCE_IN_OTHER = 800;
+    private static final int MEASURED = 900;
+    private static final float INTERVAL = 620;
+    private static final int CENTER = 50;
+
+    private SizeIndex sizeIndex;
+    private PagerGeometry geometry;
+    private double offset;
+
+    @Before
+    public void setUp() {
+        sizeIndex = new SizeIndex();
+        sizeIndex.reset(COUNT, REFERENCE, REFERENCE_IN_OTHER);
+        for (int i = 0; i < COUNT; i++) {
+            sizeIndex.set(i, MEASURED, REFERENCE_IN_OTHER);
+        }
+        geometry = new PagerGeometry();
+        geometry.setItemCount(COUNT);
+        geometry.setInterval(INTERVAL);
+        geometry.setDecoratedMeasurement(REFERENCE, REFERENCE_IN_OTHER);
+        geometry.setSizeIndex(sizeIndex, 1f);
+        offset = geometry.getProperty(CENTER);
+    }
+
+    private void setItemCount(int count) {
+        assertFalse(sizeIndex.reset(count, REFERENCE, REFERENCE_IN_OTHER));
+        geometry.setItemCount(count);
+    }
+
+    @Test
+    public void insertAfterCenterKeepsPage() {
+        sizeIndex.insert(COUNT, 1);
+        setItemCount(COUNT + 1);
+        assertEquals(CENTER, geometry.getCurrentPositionInternal(offset));
+        assertEquals(MEASURED, sizeIndex.getMeasurement(COUNT - 1));
+        assertEquals(REFERENCE, sizeIndex.getMeasurement(COUNT));
+    }
+
+    @Test
+    public void insertBeforeCenterMovesPageByInsertedItems() {
+        sizeIndex.insert(10, 5);
+        setItemCount(COUNT + 5);
+        assertEquals(REFERENCE, sizeIndex.getMeasurement(10));
+        assertEquals(MEASURED, sizeIndex.getMeasurement(15));
+        // the inserted items have the reference size, they only add their interval
+        assertEquals(offset + 5 * INTERVAL, geometry.getProperty(CENTER + 5), 1e-6);
+        assertSameAs(COUNT + 5, 10, 5);
+    }
+
+    @Test
+    public void removeBeforeCenterMovesPageByRemovedItems() {
+        sizeIndex.remove(10, 5);
+        setItemCount(COUNT - 5);
+        assertEquals(offset - 5 * (INTERVAL + MEASURED - REFERENCE),
+                geometry.getProperty(CENTER - 5), 1e-6);
+        assertSameAs(COUNT - 5, -1, 0);
+    }
+
+    @Test
+    public void resetWithNewCountKeepsMeasurements() {
+        setItemCount(COUNT + 1);
+        assertEquals(CENTER, geometry.getCurrentPositionInternal(offset));
+        setItemCount(COUNT - 1);
+        assertEquals(CENTER, geometry.getCurrentPositionInternal(offset));
+    }
+
+    @Test
+    public void resetWithNewReferenceDropsMeasurements() {
+        assertTrue(sizeIndex.reset(COUNT, REFERENCE + 1, REFERENCE_IN_OTHER));
+        assertEquals(0, sizeIndex.getTotalDelta());
+        assertEquals(REFERENCE + 1, sizeIndex.getMeasurement(CENTER));
+    }
+
+    @Test
+    public void moveKeepsMeasurementsWithTheirItems() {
+        sizeIndex.set(3, 700, 810);
+        sizeIndex.set(80, 500, 790);
+        sizeIndex.move(3, 60, 1);
+        assertEquals(700, sizeIndex.getMeasurement(60));
+        assertEquals(810, sizeIndex.getMeasurementInOther(60));
+        assertEquals(MEASURED, sizeIndex.getMeasurement(3));
+        sizeIndex.move(80, 0, 1);
+        assertEquals(500, sizeIndex.getMeasurement(0));
+        assertEquals(790, sizeIndex.getMeasurementInOther(0));
+        assertEquals(700, sizeIndex.getMeasurement(61));
+
+        final SizeIndex expected = new SizeIndex();
+        expected.reset(COUNT, REFERENCE, REFERENCE_IN_OTHER);
+        for (int i = 0; i < COUNT; i++) {
+            expected.set(i, sizeIndex.getMeasurement(i), sizeIndex.getMeasurementInOther(i));
+        }
+        assertSamePrefixes(expected, sizeIndex);
+    }
+
+    @Test
+    public void batchOfUpdatesKeepsMeasurementsSetInBetween() {
+        sizeIndex.insert(10, 5);
+        sizeIndex.set(12, 700, REFERENCE_IN_OTHER);
+        sizeIndex.remove(0, 5);
+        sizeIndex.move(7, 20, 1);
+        setItemCount(COUNT);
+        assertEquals(700, sizeIndex.getMeasurement(20));
+
+        final SizeIndex expected = new SizeIndex();
+        expected.reset(COUNT, REFERENCE, REFERENCE_IN_OTHER);
+        for (int i = 0; i < COUNT; i++) {
+            expected.set(i, sizeIndex.getMeasurement(i), sizeIndex.getMeasurementInOther(i));
+        }
+        assertSamePrefixes(expected, sizeIndex);
+    }
+
+    /**
+     * Compares the index with one built from scratch, with the reference size in
+     * [insertStart, insertStart + insertCount) and the measured size everywhere else.
+     */
+    private void assertSameAs(int count, int insertStart, int insertCount) {
+        final SizeIndex expected = new SizeIndex();
+        expected.reset(count, REFERENCE, REFERENCE_IN_OTHER);
+        for (int i = 0; i < count; i++) {
+            if (i < insertStart || i >= insertStart + insertCount) {
+                expected.set(i, MEASURED, REFERENCE_IN_OTHER);
+            }
+        }
+        assertSamePrefixes(expected, sizeIndex);
+    }
+
+    private static void assertSamePrefixes(SizeIndex expected, SizeIndex actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getTotalDelta(), actual.getTotalDelta());
+        for (int i = 0; i <= expected.getCount(); i++) {
+            assertEquals(expected.getPrefixDelta(i), actual.getPrefixDelta(i));
+        }
+        for (int i = 0; i < expected.getCount(); i++) {
+            assertEquals(expected.getMeasurement(i), actual.getMeasurement(i));
+        }
+    }
+}
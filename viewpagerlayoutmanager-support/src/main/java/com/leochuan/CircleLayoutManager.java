@@ -1,7 +1,7 @@
 package com.leochuan;
 
-import android.os.Build;
-import android.view.View;
+import com.leochuan.geometry.CircleGeometry;
+import com.leochuan.geometry.TrigTable;
 
 /**
  * A layoutManager which layouts item in a circle
@@ -26,12 +26,14 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
 
     public CircleLayoutManager(Builder builder) {
         this(builder.radius, builder.angleInterval, builder.rotateSpeed, builder.maxRemoveAngle,
-                builder.minRemoveAngle, builder.reverseLayout);
+                builder.minRemoveAngle, builder.reverseLayout, builder.trigResolution,
+                builder.trigInterpolation);
     }
 
     private CircleLayoutManager(int radius, int angleInterval, float rotateSpeed,
-                                float max, float min, boolean reverseLayout) {
-        super(HORIZONTAL, reverseLayout);
+                                float max, float min, boolean reverseLayout,
+                                int trigResolution, boolean trigInterpolation) {
+        super(HORIZONTAL, reverseLayout, new CircleGeometry(trigResolution, trigInterpolation));
         this.radius = radius;
         this.angleInterval = angleInterval;
         this.rotateSpeed = rotateSpeed;
@@ -59,6 +61,14 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
         return minRemoveAngle;
     }
 
+    public int getTrigResolution() {
+        return getGeometry().getTrigTable().getResolution();
+    }
+
+    public boolean getTrigInterpolation() {
+        return getGeometry().getTrigTable().getInterpolate();
+    }
+
     public void setRadius(int radius) {
         this.radius = radius;
         removeAllViews();
@@ -86,6 +96,23 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
         requestLayout();
     }
 
+    /**
+     * @param trigResolution how many sine/cosine samples are taken between two adjacent items
+     */
+    public void setTrigResolution(int trigResolution) {
+        getGeometry().getTrigTable().setResolution(trigResolution);
+        removeAllViews();
+        requestLayout();
+    }
+
+    /**
+     * @param trigInterpolation true to interpolate between two samples, false to use the nearest one
+     */
+    public void setTrigInterpolation(boolean trigInterpolation) {
+        getGeometry().getTrigTable().setInterpolate(trigInterpolation);
+        requestLayout();
+    }
+
     @Override
     protected float setInterval() {
         return angleInterval;
@@ -94,6 +121,7 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
     @Override
     protected void setUp() {
         radius = radius == Integer.MIN_VALUE ? mDecoratedMeasurementInOther : radius;
+        getGeometry().setRadius(radius);
     }
 
     @Override
@@ -106,44 +134,13 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
         return minRemoveAngle;
     }
 
-    @Override
-    protected int calMainDirection(float targetOffset) {
-        return (int) (radius * Math.cos(Math.toRadians(90 - targetOffset)));
-    }
-
-    @Override
-    protected int calOtherDirection(float targetOffset) {
-        return (int) (radius - radius * Math.sin(Math.toRadians(90 - targetOffset)));
-    }
-
-    @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        itemView.setRotation(targetOffset);
-        if (getEnableBringCenterToFront() &&
-                Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            itemView.setElevation(calculateElevation(targetOffset));
-        }
-    }
-
-    @Override
-    protected float setViewElevation(View itemView, float targetOffset) {
-        if (getEnableBringCenterToFront())
-            return calculateElevation(targetOffset);
-        else return super.setViewElevation(itemView, targetOffset);
-    }
-
-    @Override
-    protected float propertyChangeWhenScroll(View itemView) {
-        return itemView.getRotation();
-    }
-
     @Override
     protected float getDistanceRatio() {
         return 1 / rotateSpeed;
     }
 
-    private float calculateElevation(float targetOffset) {
-        return 360 - Math.abs(targetOffset);
+    private CircleGeometry getGeometry() {
+        return (CircleGeometry) mGeometry;
     }
 
     public static class Builder {
@@ -157,6 +154,8 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
         private float maxRemoveAngle;
         private float minRemoveAngle;
         private boolean reverseLayout;
+        private int trigResolution;
+        private boolean trigInterpolation;
 
         public Builder() {
             radius = INVALID_VALUE;
@@ -165,6 +164,8 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
             maxRemoveAngle = 90;
             minRemoveAngle = -90;
             reverseLayout = false;
+            trigResolution = TrigTable.DEFAULT_RESOLUTION;
+            trigInterpolation = true;
         }
 
         public Builder setRadius(int radius) {
@@ -197,9 +198,20 @@ public class CircleLayoutManager extends ViewPagerLayoutManager {
             return this;
         }
 
+        public Builder setTrigResolution(int trigResolution) {
+            this.trigResolution = trigResolution;
+            return this;
+        }
+
+        public Builder setTrigInterpolation(boolean trigInterpolation) {
+            this.trigInterpolation = trigInterpolation;
+            return this;
+        }
+
         public CircleLayoutManager build() {
             return new CircleLayoutManager(radius, angleInterval,
-                    rotateSpeed, maxRemoveAngle, minRemoveAngle, reverseLayout);
+                    rotateSpeed, maxRemoveAngle, minRemoveAngle, reverseLayout,
+                    trigResolution, trigInterpolation);
         }
     }
 }
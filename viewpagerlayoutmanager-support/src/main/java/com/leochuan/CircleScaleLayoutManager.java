@@ -1,7 +1,6 @@
 package com.leochuan;
 
-import android.os.Build;
-import android.view.View;
+import com.leochuan.geometry.CircleScaleGeometry;
 
 /**
  * Created by Dajavu on 12/7/16.
@@ -20,59 +19,54 @@ public class CircleScaleLayoutManager extends ViewPagerLayoutManager {
     }
 
     public CircleScaleLayoutManager(boolean reverseLayout) {
-        super(HORIZONTAL, reverseLayout);
+        super(HORIZONTAL, reverseLayout, new CircleScaleGeometry(SCALE_RATE));
         setEnableBringCenterToFront(true);
     }
 
-    @Override
-    protected float setInterval() {
-        return INTERVAL_ANGLE;
+    /**
+     * @param trigResolution how many sine/cosine samples are taken between two adjacent items
+     */
+    public void setTrigResolution(int trigResolution) {
+        getGeometry().getTrigTable().setResolution(trigResolution);
+        removeAllViews();
+        requestLayout();
     }
 
-    @Override
-    protected void setUp() {
-        mRadius = mDecoratedMeasurementInOther;
+    public int getTrigResolution() {
+        return getGeometry().getTrigTable().getResolution();
     }
 
-    @Override
-    protected float maxRemoveOffset() {
-        return 90;
+    /**
+     * @param trigInterpolation true to interpolate between two samples, false to use the nearest one
+     */
+    public void setTrigInterpolation(boolean trigInterpolation) {
+        getGeometry().getTrigTable().setInterpolate(trigInterpolation);
+        requestLayout();
     }
 
-    @Override
-    protected float minRemoveOffset() {
-        return -90;
+    public boolean getTrigInterpolation() {
+        return getGeometry().getTrigTable().getInterpolate();
     }
 
     @Override
-    protected int calMainDirection(float targetOffset) {
-        return (int) (mRadius * Math.cos(Math.toRadians(90 - targetOffset)));
-    }
-
-    @Override
-    protected int calOtherDirection(float targetOffset) {
-        return (int) (mRadius - mRadius * Math.sin(Math.toRadians(90 - targetOffset)));
+    protected float setInterval() {
+        return INTERVAL_ANGLE;
     }
 
     @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        itemView.setRotation(targetOffset);
-        float scale = calculateScale(itemView, targetOffset);
-        itemView.setScaleX(scale);
-        itemView.setScaleY(scale);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            itemView.setElevation(scale);
-        }
+    protected void setUp() {
+        mRadius = mDecoratedMeasurementInOther;
+        getGeometry().setRadius(mRadius);
     }
 
     @Override
-    protected float setViewElevation(View itemView, float targetOffset) {
-        return calculateScale(itemView, targetOffset);
+    protected float maxRemoveOffset() {
+        return 90;
     }
 
     @Override
-    protected float propertyChangeWhenScroll(View itemView) {
-        return itemView.getRotation();
+    protected float minRemoveOffset() {
+        return -90;
     }
 
     @Override
@@ -80,9 +74,7 @@ public class CircleScaleLayoutManager extends ViewPagerLayoutManager {
         return DISTANCE_RATIO;
     }
 
-    private float calculateScale(View itemView, float targetOffset) {
-        if (targetOffset >= INTERVAL_ANGLE || targetOffset <= -INTERVAL_ANGLE) return 1f;
-        float diff = Math.abs(Math.abs(itemView.getRotation() - INTERVAL_ANGLE) - INTERVAL_ANGLE);
-        return (SCALE_RATE - 1f) / -INTERVAL_ANGLE * diff + SCALE_RATE;
+    private CircleScaleGeometry getGeometry() {
+        return (CircleScaleGeometry) mGeometry;
     }
 }
@@ -1,12 +1,12 @@
 package com.leochuan;
 
-import android.os.Build;
-import android.view.View;
+import com.leochuan.geometry.ElevateScaleGeometry;
 
 /**
  * Created by Dajavu on 12/7/16.
  * <p>
- * this layoutManager Require api21 to support elevation
+ * the center item is drawn above the others through the child drawing order, so no elevation
+ * is required and it works the same on every api level
  */
 
 public class ElevateScaleLayoutManager extends ViewPagerLayoutManager {
@@ -14,16 +14,14 @@ public class ElevateScaleLayoutManager extends ViewPagerLayoutManager {
     private static final float MIN_SCALE = 0.5f;
 
     private int itemSpace = 0;
-    private float minScale;
 
     public ElevateScaleLayoutManager(int itemSpace) {
         this(itemSpace, MIN_SCALE, HORIZONTAL, false);
     }
 
     public ElevateScaleLayoutManager(int itemSpace, float minScale, int orientation, boolean reverseLayout) {
-        super(orientation, reverseLayout);
+        super(orientation, reverseLayout, new ElevateScaleGeometry(minScale));
         this.itemSpace = itemSpace;
-        this.minScale = minScale;
         setEnableBringCenterToFront(true);
     }
 
@@ -36,34 +34,4 @@ public class ElevateScaleLayoutManager extends ViewPagerLayoutManager {
     protected void setUp() {
 
     }
-
-    @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        float scale = calculateScale((int) targetOffset + mSpaceMain);
-        float elevation = calculateElevation((int) targetOffset + mSpaceMain);
-        itemView.setScaleX(scale);
-        itemView.setScaleY(scale);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            itemView.setElevation(elevation);
-        }
-    }
-
-    @Override
-    protected float setViewElevation(View itemView, float targetOffset) {
-        return (float) calculateElevation((int) targetOffset + mSpaceMain);
-    }
-
-    /**
-     * @param x start positon of the view you want scale
-     * @return the scale rate of current scroll mOffset
-     */
-    private float calculateScale(int x) {
-        float deltaX = Math.abs(x - (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2f);
-        return -minScale * deltaX / (mOrientationHelper.getTotalSpace() / 2f) + 1f;
-    }
-
-    private int calculateElevation(int x) {
-        int deltaX = (int) Math.abs(x - (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2f);
-        return Integer.MAX_VALUE - deltaX;
-    }
 }
@@ -1,6 +1,6 @@
 package com.leochuan;
 
-import android.view.View;
+import com.leochuan.geometry.GalleryGeometry;
 
 /**
  * Created by Dajavu on 12/7/16.
@@ -17,7 +17,7 @@ public class GalleryLayoutManager extends ViewPagerLayoutManager {
     }
 
     public GalleryLayoutManager(int itemSpace, int orientation, boolean reverseLayout) {
-        super(orientation, reverseLayout);
+        super(orientation, reverseLayout, new GalleryGeometry(INTERVAL_ANGLE, MIN_ALPHA));
         this.itemSpace = itemSpace;
     }
 
@@ -30,20 +30,4 @@ public class GalleryLayoutManager extends ViewPagerLayoutManager {
     protected void setUp() {
 
     }
-
-    @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        itemView.setRotationY(calRotationY(targetOffset));
-        itemView.setAlpha(calAlpha(targetOffset));
-    }
-
-    private float calRotationY(float targetOffset) {
-        return -INTERVAL_ANGLE / mInterval * targetOffset;
-    }
-
-    private float calAlpha(float targetOffset) {
-        float alpha = (MIN_ALPHA - 1f) / mInterval * Math.abs(targetOffset) + 1f;
-        if (alpha < MIN_ALPHA) alpha = MIN_ALPHA;
-        return alpha;
-    }
 }
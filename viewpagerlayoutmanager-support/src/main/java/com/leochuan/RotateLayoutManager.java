@@ -1,6 +1,6 @@
 package com.leochuan;
 
-import android.view.View;
+import com.leochuan.geometry.RotateGeometry;
 
 /**
  * Created by Dajavu on 12/7/16.
@@ -11,8 +11,6 @@ public class RotateLayoutManager extends ViewPagerLayoutManager {
 
     private int itemSpace = 0;
 
-    private float angle;
-
     public RotateLayoutManager(int itemSpace) {
         this(itemSpace, INTERVAL_ANGLE, HORIZONTAL, false);
     }
@@ -22,8 +20,7 @@ public class RotateLayoutManager extends ViewPagerLayoutManager {
     }
 
     public RotateLayoutManager(int itemSpace, float angle, int orientation, boolean reverseLayout) {
-        super(orientation, reverseLayout);
-        this.angle = angle;
+        super(orientation, reverseLayout, new RotateGeometry(angle));
         this.itemSpace = itemSpace;
     }
 
@@ -36,13 +33,4 @@ public class RotateLayoutManager extends ViewPagerLayoutManager {
     protected void setUp() {
 
     }
-
-    @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        itemView.setRotation(calRotation(targetOffset));
-    }
-
-    private float calRotation(float targetOffset) {
-        return -angle / mInterval * targetOffset;
-    }
 }
@@ -1,6 +1,6 @@
 package com.leochuan;
 
-import android.view.View;
+import com.leochuan.geometry.ScaleGeometry;
 
 /**
  * Created by Dajavu on 12/7/16.
@@ -16,7 +16,7 @@ public class ScaleLayoutManager extends ViewPagerLayoutManager {
     }
 
     public ScaleLayoutManager(int itemSpace, int orientation, boolean reverseLayout) {
-        super(orientation, reverseLayout);
+        super(orientation, reverseLayout, new ScaleGeometry(SCALE_RATE));
         this.itemSpace = itemSpace;
     }
 
@@ -29,22 +29,4 @@ public class ScaleLayoutManager extends ViewPagerLayoutManager {
     protected void setUp() {
 
     }
-
-    @Override
-    protected void setItemViewProperty(View itemView, float targetOffset) {
-        float scale = calculateScale((int) targetOffset + mSpaceMain);
-        itemView.setScaleX(scale);
-        itemView.setScaleY(scale);
-    }
-
-    /**
-     * @param x start positon of the view you want scale
-     * @return the scale rate of current scroll mOffset
-     */
-    private float calculateScale(int x) {
-        int deltaX = Math.abs(x - (mOrientationHelper.getTotalSpace() - mDecoratedMeasurement) / 2);
-        float diff = 0f;
-        if ((mDecoratedMeasurement - deltaX) > 0) diff = mDecoratedMeasurement - deltaX;
-        return (SCALE_RATE - 1f) / mDecoratedMeasurement * diff + 1;
-    }
 }